@@ -0,0 +1,219 @@
+package me.lwhitelaw.lwrand;
+
+import static jdk.incubator.vector.VectorOperators.LSHL;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+import java.util.Objects;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Bulk generation for LWRand64 and LWRand32 using the Vector API. Each vector lane evaluates the mix functions for one
+ * counter position, so several consecutive outputs are produced per instruction. The results are identical to
+ * {@linkplain LWRand64#nextLongs(long[], int, int)} and {@linkplain LWRand32#nextInts(int[], int, int)}, and the generator
+ * is left in the same state.
+ * <br>
+ * This class requires the <code>jdk.incubator.vector</code> module and is kept out of the main project so the generators
+ * themselves work on any JDK.
+ * @author lwhitelaw
+ *
+ */
+public final class LWRandVector {
+	private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+	
+	private LWRandVector() {}
+	
+	/**
+	 * Fill a range of an array with random longs from the given generator.
+	 * @param rng the generator to draw from
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public static void nextLongs(LWRand64 rng, long[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		if (len == 0) return;
+		rng.haveBits = 0; // same resync as nextLong()
+		long c = rng.c;
+		long d = rng.d;
+		final long stream = rng.stream;
+		final int lanes = LONG_SPECIES.length();
+		// per-lane counter offsets for positions 1..lanes
+		LongVector index = LongVector.zero(LONG_SPECIES).addIndex(1).add(1);
+		LongVector cStep = index.mul(stream);
+		int i = off;
+		int end = off + len;
+		int upper = off + LONG_SPECIES.loopBound(len);
+		for (; i < upper; i += lanes) {
+			if (Long.compareUnsigned(d, 0xFFFFFFFF_FFFFFFFEL - lanes) > 0) {
+				// d wraps inside this block, fall back to scalar steps
+				for (int j = 0; j < lanes; j++) {
+					c += stream;
+					d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+					dst[i + j] = LWRand64.mix(c) ^ LWRand64.mix2(d);
+				}
+				continue;
+			}
+			LongVector cv = LongVector.broadcast(LONG_SPECIES, c).add(cStep);
+			LongVector dv = LongVector.broadcast(LONG_SPECIES, d).add(index);
+			mix(cv).lanewise(XOR, mix2(dv)).intoArray(dst, i);
+			c += lanes * stream;
+			d += lanes;
+		}
+		for (; i < end; i++) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			dst[i] = LWRand64.mix(c) ^ LWRand64.mix2(d);
+		}
+		rng.c = c;
+		rng.d = d;
+	}
+	
+	/**
+	 * Fill an array with random longs from the given generator.
+	 * @param rng the generator to draw from
+	 * @param dst the array to fill
+	 */
+	public static void nextLongs(LWRand64 rng, long[] dst) {
+		nextLongs(rng, dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with random ints from the given generator.
+	 * @param rng the generator to draw from
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public static void nextInts(LWRand32 rng, int[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		int c = rng.c;
+		int d = rng.d;
+		final int stream = rng.stream;
+		final int lanes = INT_SPECIES.length();
+		// per-lane counter offsets for positions 1..lanes
+		IntVector index = IntVector.zero(INT_SPECIES).addIndex(1).add(1);
+		IntVector cStep = index.mul(stream);
+		int i = off;
+		int end = off + len;
+		int upper = off + INT_SPECIES.loopBound(len);
+		for (; i < upper; i += lanes) {
+			if (Integer.compareUnsigned(d, 0xFFFFFFFE - lanes) > 0) {
+				// d wraps inside this block, fall back to scalar steps
+				for (int j = 0; j < lanes; j++) {
+					c += stream;
+					d++; if (d == 0xFFFFFFFF) d = 0;
+					dst[i + j] = LWRand32.mix(c) ^ LWRand32.mix2(d);
+				}
+				continue;
+			}
+			IntVector cv = IntVector.broadcast(INT_SPECIES, c).add(cStep);
+			IntVector dv = IntVector.broadcast(INT_SPECIES, d).add(index);
+			mix(cv).lanewise(XOR, mix2(dv)).intoArray(dst, i);
+			c += lanes * stream;
+			d += lanes;
+		}
+		for (; i < end; i++) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			dst[i] = LWRand32.mix(c) ^ LWRand32.mix2(d);
+		}
+		rng.c = c;
+		rng.d = d;
+	}
+	
+	/**
+	 * Fill an array with random ints from the given generator.
+	 * @param rng the generator to draw from
+	 * @param dst the array to fill
+	 */
+	public static void nextInts(LWRand32 rng, int[] dst) {
+		nextInts(rng, dst, 0, dst.length);
+	}
+	
+	/**
+	 * Lane-wise LWRand64 mix function core A.
+	 * @param v counter input
+	 * @return mixed value
+	 */
+	private static LongVector mix(LongVector v) {
+		v = v.add(0xFF7B3242A5346FABL); v = v.lanewise(XOR, v.lanewise(LSHL, 19));
+		v = v.add(0xE29E698A09D89099L); v = v.lanewise(XOR, v.lanewise(LSHL, 6));
+		v = v.add(0x764E4B4DD29E68E7L); v = v.lanewise(XOR, v.lanewise(LSHR, 28));
+		v = v.add(0xBD45085DD1D02E75L); v = v.lanewise(XOR, v.lanewise(LSHL, 8));
+		
+		v = v.add(0x08632527BC62F9F4L); v = v.lanewise(XOR, v.lanewise(LSHR, 22));
+		v = v.add(0xF6F843C0DC630B04L); v = v.lanewise(XOR, v.lanewise(LSHR, 2));
+		v = v.add(0x0273CC983D9F1994L); v = v.lanewise(XOR, v.lanewise(LSHR, 10));
+		v = v.add(0xA4CB2895080EF775L); v = v.lanewise(XOR, v.lanewise(LSHL, 18));
+		
+		v = v.add(0x9AC877D396CCD88CL); v = v.lanewise(XOR, v.lanewise(LSHR, 22));
+		v = v.add(0xF61ECC72C148D762L); v = v.lanewise(XOR, v.lanewise(LSHL, 28));
+		return v;
+	}
+	
+	/**
+	 * Lane-wise LWRand64 mix function core B.
+	 * @param v counter input
+	 * @return mixed value
+	 */
+	private static LongVector mix2(LongVector v) {
+		v = v.add(0x38D506988BA5CF97L); v = v.lanewise(XOR, v.lanewise(LSHL, 33));
+		v = v.add(0x1CFF974774D783BBL); v = v.lanewise(XOR, v.lanewise(LSHR, 10));
+		v = v.add(0xD26F6DAD13252AF1L); v = v.lanewise(XOR, v.lanewise(LSHL, 1));
+		v = v.add(0x6057C672DC20E52AL); v = v.lanewise(XOR, v.lanewise(LSHR, 24));
+		
+		v = v.add(0x1B154FB993729895L); v = v.lanewise(XOR, v.lanewise(LSHL, 38));
+		v = v.add(0xDA5A1A05BFA175F0L); v = v.lanewise(XOR, v.lanewise(LSHR, 18));
+		v = v.add(0x80E81C053D0D9A0DL); v = v.lanewise(XOR, v.lanewise(LSHR, 3));
+		v = v.add(0x3DB7D7C167BAE229L); v = v.lanewise(XOR, v.lanewise(LSHL, 5));
+		
+		v = v.add(0x19C1405A41403449L); v = v.lanewise(XOR, v.lanewise(LSHR, 33));
+		v = v.add(0xCAC96BEA9B351A4AL); v = v.lanewise(XOR, v.lanewise(LSHL, 23));
+		return v;
+	}
+	
+	/**
+	 * Lane-wise LWRand32 mix function core A.
+	 * @param v counter input
+	 * @return mixed value
+	 */
+	private static IntVector mix(IntVector v) {
+		v = v.add(0x09FE1424); v = v.lanewise(XOR, v.lanewise(LSHL, 25));
+		v = v.add(0x69D61F34); v = v.lanewise(XOR, v.lanewise(LSHR, 12));
+		v = v.add(0xBA1A7EE1); v = v.lanewise(XOR, v.lanewise(LSHL, 19));
+		
+		v = v.add(0xBE637486); v = v.lanewise(XOR, v.lanewise(LSHR, 3));
+		v = v.add(0x2350E6C7); v = v.lanewise(XOR, v.lanewise(LSHR, 6));
+		v = v.add(0x8A16198E); v = v.lanewise(XOR, v.lanewise(LSHL, 4));
+		
+		v = v.add(0x6336D6EC); v = v.lanewise(XOR, v.lanewise(LSHR, 14));
+		v = v.add(0x696B1357); v = v.lanewise(XOR, v.lanewise(LSHL, 16));
+		v = v.add(0x632A4DD3); v = v.lanewise(XOR, v.lanewise(LSHR, 8));
+		return v;
+	}
+	
+	/**
+	 * Lane-wise LWRand32 mix function core B.
+	 * @param v counter input
+	 * @return mixed value
+	 */
+	private static IntVector mix2(IntVector v) {
+		v = v.add(0x38A341AF); v = v.lanewise(XOR, v.lanewise(LSHL, 13));
+		v = v.add(0x682F2DF8); v = v.lanewise(XOR, v.lanewise(LSHR, 10));
+		v = v.add(0x882611AA); v = v.lanewise(XOR, v.lanewise(LSHL, 17));
+		
+		v = v.add(0x2787052E); v = v.lanewise(XOR, v.lanewise(LSHR, 3));
+		v = v.add(0x562885C4); v = v.lanewise(XOR, v.lanewise(LSHL, 8));
+		v = v.add(0x1B6E2B3D); v = v.lanewise(XOR, v.lanewise(LSHR, 20));
+		
+		v = v.add(0x7EF79D81); v = v.lanewise(XOR, v.lanewise(LSHR, 4));
+		v = v.add(0xA4DB621A); v = v.lanewise(XOR, v.lanewise(LSHL, 9));
+		v = v.add(0xCC2C66ED); v = v.lanewise(XOR, v.lanewise(LSHR, 15));
+		return v;
+	}
+}
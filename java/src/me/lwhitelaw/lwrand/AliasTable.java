@@ -0,0 +1,267 @@
+package me.lwhitelaw.lwrand;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+/**
+ * A sampler for weighted categorical draws using Walker's alias method. The table is built in O(n) time with Vose's method,
+ * and each sample takes one {@linkplain RandomGenerator#nextLong()}. The high 64 bits of the value multiplied by n select a
+ * column, and the low 64 bits, which are independent of the column, toss the coin that chooses between the column and its alias.
+ * <br>
+ * Tables are immutable once built and may be shared between threads. {@linkplain #offHeap(double[])} stores the table in native
+ * memory, which keeps very large tables out of the Java heap.
+ * @author lwhitelaw
+ *
+ */
+public abstract class AliasTable {
+	private static final long FULL = 1L << 53; // threshold of a column that never takes its alias
+	private static final int UNBUILT = -1; // alias of a column not yet built, whose scaled weight comes from the weights
+	private static final int RESIDUAL = -2; // alias of a column not yet built, whose scaled weight is stored in its threshold
+	
+	private final int size;
+	
+	private AliasTable(int size) {
+		this.size = size;
+	}
+	
+	/**
+	 * Build a table stored in a Java array, using 16 bytes per category. At most 2^30 - 1 categories are supported.
+	 * @param weights the relative weight of each category; must be finite, non-negative and not all zero
+	 * @return the table
+	 */
+	public static AliasTable of(double[] weights) {
+		int n = weights.length;
+		if (n > Integer.MAX_VALUE / 2) {
+			throw new IllegalArgumentException("too many categories for an on-heap table");
+		}
+		double max = maxWeight(weights);
+		AliasTable table = new OnHeap(n);
+		table.build(weights, max);
+		return table;
+	}
+	
+	/**
+	 * Build a table stored in native memory, using 12 bytes per category. The table is split over several buffers, so any
+	 * number of categories that fits in a Java array is supported, and building it takes no Java heap beyond the weights.
+	 * @param weights the relative weight of each category; must be finite, non-negative and not all zero
+	 * @return the table
+	 */
+	public static AliasTable offHeap(double[] weights) {
+		double max = maxWeight(weights);
+		AliasTable table = new OffHeap(weights.length);
+		table.build(weights, max);
+		return table;
+	}
+	
+	/**
+	 * Check the weights and return the largest of them.
+	 */
+	private static double maxWeight(double[] weights) {
+		if (weights.length == 0) {
+			throw new IllegalArgumentException("weights must not be empty");
+		}
+		double max = 0;
+		for (double w : weights) {
+			if (!(w >= 0 && w < Double.POSITIVE_INFINITY)) {
+				throw new IllegalArgumentException("weights must be finite and non-negative");
+			}
+			if (w > max) max = w;
+		}
+		if (max == 0) {
+			throw new IllegalArgumentException("weights must not all be zero");
+		}
+		return max;
+	}
+	
+	/**
+	 * Fill the columns with Vose's method. Each threshold is the probability of keeping the column, scaled to 2^53.
+	 * <br>
+	 * Instead of Vose's two work lists, one pointer scans for columns below 1 and another for columns at or above 1, and
+	 * the only large column that is ever partly spent is the current one. A large column that falls below 1 is either built
+	 * at once, if the small scan has already passed it, or left for the scan with its remaining weight stored in its own
+	 * threshold. Building therefore needs no memory beyond the table.
+	 * @param weights the weights
+	 * @param max the largest weight, which the weights are divided by so that their sum cannot overflow
+	 */
+	private void build(double[] weights, double max) {
+		int n = weights.length;
+		double sum = 0;
+		for (double w : weights) sum += w / max; // from 1 to n
+		double scale = n / sum; // probabilities scaled so the average column is exactly full
+		for (int i = 0; i < n; i++) set(i, 0, UNBUILT);
+		int scan = nextSmall(weights, max, scale, 0); // small column found by the last scan
+		int s = scan; // small column to build next
+		double ps = s < n ? scaled(weights, max, scale, s) : 0;
+		int l = nextLarge(weights, max, scale, 0);
+		double pl = l < n ? scaled(weights, max, scale, l) : 0;
+		while (s < n && l < n) {
+			set(s, (long) (ps * 0x1.0p53), l);
+			// the large column donates what the small one lacks
+			pl = (pl + ps) - 1;
+			if (pl < 1 && l < scan) {
+				// behind the scan, so build it next
+				s = l;
+				ps = pl;
+			} else {
+				if (pl < 1) set(l, Double.doubleToRawLongBits(pl), RESIDUAL);
+				scan = nextSmall(weights, max, scale, scan + 1);
+				s = scan;
+				ps = s < n ? scaled(weights, max, scale, s) : 0;
+			}
+			if (pl < 1) {
+				l = nextLarge(weights, max, scale, l + 1);
+				pl = l < n ? scaled(weights, max, scale, l) : 0;
+			}
+		}
+		// whatever is left is full up to rounding error
+		for (int i = 0; i < n; i++) {
+			if (alias(i) < 0) set(i, FULL, i);
+		}
+	}
+	
+	/**
+	 * Return the scaled weight of a column that has not been built.
+	 */
+	private double scaled(double[] weights, double max, double scale, int column) {
+		if (alias(column) == RESIDUAL) return Double.longBitsToDouble(threshold(column));
+		return (weights[column] / max) * scale;
+	}
+	
+	/**
+	 * Return the first column from the given one that has not been built and is below 1, or the size if there is none.
+	 */
+	private int nextSmall(double[] weights, double max, double scale, int from) {
+		int n = weights.length;
+		while (from < n && (alias(from) >= 0 || scaled(weights, max, scale, from) >= 1)) from++;
+		return from;
+	}
+	
+	/**
+	 * Return the first column from the given one whose weight is at or above 1, or the size if there is none. Columns past
+	 * the current large one are untouched, so their weights can be used directly.
+	 */
+	private static int nextLarge(double[] weights, double max, double scale, int from) {
+		int n = weights.length;
+		while (from < n && (weights[from] / max) * scale < 1) from++;
+		return from;
+	}
+	
+	/**
+	 * Return the number of categories in this table.
+	 * @return the number of categories
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Draw a category.
+	 * @param rng the generator to draw from
+	 * @return a category index from 0 (inclusive) to {@linkplain #size()} (exclusive), chosen with probability proportional to its weight
+	 */
+	public int sample(RandomGenerator rng) {
+		long w = rng.nextLong();
+		int column = (int) LWRand64.unsignedMultiplyHigh(w, size);
+		long coin = (w * size) >>> 11; // low half of the product, independent of the column
+		return coin < threshold(column) ? column : alias(column);
+	}
+	
+	/**
+	 * Fill an array with categories.
+	 * @param rng the generator to draw from
+	 * @param out the array to fill
+	 */
+	public void sample(RandomGenerator rng, int[] out) {
+		sample(rng, out, 0, out.length);
+	}
+	
+	/**
+	 * Fill a range of an array with categories.
+	 * @param rng the generator to draw from
+	 * @param out the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void sample(RandomGenerator rng, int[] out, int off, int len) {
+		Objects.checkFromIndexSize(off, len, out.length);
+		for (int i = off; i < off + len; i++) {
+			out[i] = sample(rng);
+		}
+	}
+	
+	/**
+	 * Return the probability of keeping a column rather than taking its alias, scaled to 2^53.
+	 */
+	abstract long threshold(int column);
+	
+	/**
+	 * Return the alias of a column.
+	 */
+	abstract int alias(int column);
+	
+	/**
+	 * Set the threshold and alias of a column.
+	 */
+	abstract void set(int column, long threshold, int alias);
+	
+	private static final class OnHeap extends AliasTable {
+		private final long[] table; // threshold then alias, so both share a cache line
+		
+		OnHeap(int size) {
+			super(size);
+			table = new long[2 * size];
+		}
+		
+		@Override
+		long threshold(int column) {
+			return table[2 * column];
+		}
+		
+		@Override
+		int alias(int column) {
+			return (int) table[2 * column + 1];
+		}
+		
+		@Override
+		void set(int column, long threshold, int alias) {
+			table[2 * column] = threshold;
+			table[2 * column + 1] = alias;
+		}
+	}
+	
+	private static final class OffHeap extends AliasTable {
+		static final int ENTRY = 12; // threshold then alias
+		static final int CHUNK_BITS = 24; // columns per buffer, 192 MiB
+		static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+		
+		private final ByteBuffer[] chunks;
+		
+		OffHeap(int size) {
+			super(size);
+			chunks = new ByteBuffer[((size - 1) >>> CHUNK_BITS) + 1];
+			for (int i = 0; i < chunks.length; i++) {
+				int columns = Math.min(1 << CHUNK_BITS, size - (i << CHUNK_BITS));
+				chunks[i] = ByteBuffer.allocateDirect(columns * ENTRY).order(ByteOrder.nativeOrder());
+			}
+		}
+		
+		@Override
+		long threshold(int column) {
+			return chunks[column >>> CHUNK_BITS].getLong((column & CHUNK_MASK) * ENTRY);
+		}
+		
+		@Override
+		int alias(int column) {
+			return chunks[column >>> CHUNK_BITS].getInt((column & CHUNK_MASK) * ENTRY + 8);
+		}
+		
+		@Override
+		void set(int column, long threshold, int alias) {
+			ByteBuffer chunk = chunks[column >>> CHUNK_BITS];
+			chunk.putLong((column & CHUNK_MASK) * ENTRY, threshold);
+			chunk.putInt((column & CHUNK_MASK) * ENTRY + 8, alias);
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package me.lwhitelaw.lwrand;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * Rough throughput measurements for the generators. Each case runs several rounds so later rounds reflect JIT-compiled code;
+ * use a proper harness for publishable numbers.
+ */
+public class Benchmark {
+	private static final int ROUNDS = 5;
+	private static final int COUNT = 100_000_000;
+	private static final int TASKS = 20_000;
+	
+	static long sink; // consumes results so they are not optimised away
+	
+	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("shared")) {
+			int threads = Runtime.getRuntime().availableProcessors();
+			int perThread = COUNT / threads;
+			measureThreads("LWRand64.threadLocal", COUNT, threads, () -> {
+				long acc = 0;
+				for (int i = 0; i < perThread; i++) acc += LWRand64.threadLocal().nextLong();
+				sink += acc;
+			});
+			LWRand64Shared shared = new LWRand64Shared();
+			measureThreads("LWRand64Shared", COUNT, threads, () -> {
+				long acc = 0;
+				for (int i = 0; i < perThread; i++) acc += shared.nextLong();
+				sink += acc;
+			});
+			measureThreads("LWRand64Shared.cursor(64)", COUNT, threads, () -> {
+				LWRand64Shared.Cursor cursor = shared.cursor(64);
+				long acc = 0;
+				for (int i = 0; i < perThread; i++) acc += cursor.nextLong();
+				sink += acc;
+			});
+			return;
+		}
+		if (args.length > 0 && args[0].equals("binding")) {
+			// thread-per-task, as a virtual-thread server would run; each task draws a few values
+			measureTasks("LWRand64.threadLocal", TASKS, () -> {
+				long acc = 0;
+				for (int i = 0; i < 16; i++) acc += LWRand64.threadLocal().nextLong();
+				sink += acc;
+			});
+			LWRand64Striped striped = LWRand64Striped.instance();
+			measureTasks("LWRand64Striped", TASKS, () -> {
+				long acc = 0;
+				for (int i = 0; i < 16; i++) acc += striped.nextLong();
+				sink += acc;
+			});
+			// long-running threads hitting neighbouring stripes, where false sharing between stripes would show
+			int threads = Runtime.getRuntime().availableProcessors();
+			int perThread = COUNT / threads;
+			measureThreads("LWRand64Striped", COUNT, threads, () -> {
+				long acc = 0;
+				for (int i = 0; i < perThread; i++) acc += striped.nextLong();
+				sink += acc;
+			});
+			return;
+		}
+		if (args.length > 0 && args[0].equals("bounded")) {
+			LWRand64 r64 = new LWRand64();
+			// same generator seen only through nextInt()/nextLong(), so the JDK default bounded methods are used
+			RandomGenerator plain = new RandomGenerator() {
+				@Override
+				public int nextInt() {
+					return r64.nextInt();
+				}
+				
+				@Override
+				public long nextLong() {
+					return r64.nextLong();
+				}
+			};
+			for (int bound : new int[] { 1000, 1 << 30, 0x40000001, 0x60000000, 0x7FFFFFFF }) {
+				measure("default nextInt(" + bound + ")", COUNT, () -> {
+					long acc = 0;
+					for (int i = 0; i < COUNT; i++) acc += plain.nextInt(bound);
+					sink += acc;
+				});
+				measure("LWRand64.nextInt(" + bound + ")", COUNT, () -> {
+					long acc = 0;
+					for (int i = 0; i < COUNT; i++) acc += r64.nextInt(bound);
+					sink += acc;
+				});
+				int[] buf = new int[1024];
+				measure("LWRand64.nextBoundedInts(" + bound + ")", COUNT, () -> {
+					long acc = 0;
+					for (int i = 0; i < COUNT; i += buf.length) {
+						r64.nextBoundedInts(buf, bound);
+						acc += buf[0];
+					}
+					sink += acc;
+				});
+			}
+			for (long bound : new long[] { 3L << 40, 1L << 40, 0x60000000_00000000L }) {
+				measure("default nextLong(" + bound + ")", COUNT, () -> {
+					long acc = 0;
+					for (int i = 0; i < COUNT; i++) acc += plain.nextLong(bound);
+					sink += acc;
+				});
+				measure("LWRand64.nextLong(" + bound + ")", COUNT, () -> {
+					long acc = 0;
+					for (int i = 0; i < COUNT; i++) acc += r64.nextLong(bound);
+					sink += acc;
+				});
+			}
+			return;
+		}
+		if (args.length > 0 && args[0].equals("distributions")) {
+			LWRand64 r64 = new LWRand64();
+			int count = COUNT / 100;
+			for (double mean : new double[] { 4, 100, 500 }) {
+				Distributions.Poisson poisson = Distributions.poisson(mean);
+				measure("inversion Poisson(" + mean + ")", count, () -> {
+					long acc = 0;
+					for (int i = 0; i < count; i++) acc += poissonInversion(r64, mean);
+					sink += acc;
+				});
+				measure("Distributions.poisson(" + mean + ")", count, () -> {
+					long acc = 0;
+					for (int i = 0; i < count; i++) acc += poisson.sample(r64);
+					sink += acc;
+				});
+			}
+			for (int trials : new int[] { 20, 200, 1000 }) {
+				Distributions.Binomial binomial = Distributions.binomial(trials, 0.3);
+				measure("inversion Binomial(" + trials + ", 0.3)", count, () -> {
+					long acc = 0;
+					for (int i = 0; i < count; i++) acc += binomialInversion(r64, trials, 0.3);
+					sink += acc;
+				});
+				measure("Distributions.binomial(" + trials + ", 0.3)", count, () -> {
+					long acc = 0;
+					for (int i = 0; i < count; i++) acc += binomial.sample(r64);
+					sink += acc;
+				});
+			}
+			Distributions.Gamma gamma = Distributions.gamma(2.5, 1);
+			measure("Distributions.gamma(2.5, 1)", count, () -> {
+				double acc = 0;
+				for (int i = 0; i < count; i++) acc += gamma.sample(r64);
+				sink += (long) acc;
+			});
+			return;
+		}
+		if (args.length > 0 && args[0].equals("zipf")) {
+			LWRand64 r64 = new LWRand64();
+			int count = COUNT / 10;
+			int keys = 1_000_000;
+			double[] weights = new double[keys];
+			for (int i = 0; i < keys; i++) weights[i] = Math.pow(i + 1, -0.99);
+			AliasTable alias = AliasTable.of(weights);
+			measure("AliasTable Zipf(1e6, 0.99)", count, () -> {
+				long acc = 0;
+				for (int i = 0; i < count; i++) acc += alias.sample(r64);
+				sink += acc;
+			});
+			ZipfSampler zipf = new ZipfSampler(keys, 0.99);
+			measure("ZipfSampler(1e6, 0.99)", count, () -> {
+				long acc = 0;
+				for (int i = 0; i < count; i++) acc += zipf.sample(r64);
+				sink += acc;
+			});
+			ZipfSampler scrambled = new ZipfSampler(1L << 40, 0.99, true);
+			long[] buf = new long[1024];
+			measure("ZipfSampler(2^40, 0.99).fill", count, () -> {
+				long acc = 0;
+				for (int i = 0; i < count; i += buf.length) {
+					scrambled.fill(r64, buf);
+					acc += buf[0];
+				}
+				sink += acc;
+			});
+			return;
+		}
+		System.out.println("Usage: (shared | binding | bounded | distributions | zipf)");
+	}
+	
+	/**
+	 * Poisson sampling by sequential search of the cumulative distribution, for comparison. Only usable while exp(-mean)
+	 * does not underflow.
+	 */
+	private static long poissonInversion(RandomGenerator rng, double mean) {
+		double u = rng.nextDouble();
+		double p = Math.exp(-mean);
+		long k = 0;
+		double sum = p;
+		while (u >= sum && p > 0) {
+			k++;
+			p *= mean / k;
+			sum += p;
+		}
+		return k;
+	}
+	
+	/**
+	 * Binomial sampling by sequential search of the cumulative distribution, for comparison. Only usable while
+	 * (1 - probability)^trials does not underflow.
+	 */
+	private static int binomialInversion(RandomGenerator rng, int trials, double probability) {
+		double u = rng.nextDouble();
+		double ratio = probability / (1 - probability);
+		double p = Math.pow(1 - probability, trials);
+		int k = 0;
+		double sum = p;
+		while (u >= sum && k < trials) {
+			p *= ratio * (trials - k) / (k + 1);
+			k++;
+			sum += p;
+		}
+		return k;
+	}
+	
+	/**
+	 * Run a case for several rounds and print the time per operation of each round.
+	 * @param name the case name
+	 * @param ops the number of operations performed by one run of the body
+	 * @param body the case
+	 */
+	static void measure(String name, long ops, Runnable body) {
+		for (int r = 0; r < ROUNDS; r++) {
+			long start = System.nanoTime();
+			body.run();
+			long time = System.nanoTime() - start;
+			System.out.printf("%-32s round %d: %8.3f ns/op%n", name, r, (double) time / ops);
+		}
+	}
+	
+	/**
+	 * Run a case on several threads at once for several rounds and print the wall-clock time per operation of each round.
+	 * @param name the case name
+	 * @param ops the total number of operations performed by all threads in one round
+	 * @param threads the number of threads
+	 * @param body the case run by each thread
+	 */
+	static void measureThreads(String name, long ops, int threads, Runnable body) {
+		measure(name + " x" + threads, ops, () -> {
+			Thread[] workers = new Thread[threads];
+			for (int i = 0; i < threads; i++) {
+				workers[i] = new Thread(body);
+				workers[i].start();
+			}
+			for (Thread worker : workers) {
+				try {
+					worker.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Run a case once on each of many new threads for several rounds and print the average latency and bytes allocated by
+	 * the case body, excluding thread creation.
+	 * @param name the case name
+	 * @param tasks the number of threads started per round
+	 * @param body the case run by each thread
+	 */
+	static void measureTasks(String name, int tasks, Runnable body) {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		for (int r = 0; r < ROUNDS; r++) {
+			AtomicLong nanos = new AtomicLong();
+			AtomicLong bytes = new AtomicLong();
+			for (int t = 0; t < tasks; t++) {
+				Thread worker = new Thread(() -> {
+					long allocated = bean.getCurrentThreadAllocatedBytes();
+					long start = System.nanoTime();
+					body.run();
+					nanos.addAndGet(System.nanoTime() - start);
+					bytes.addAndGet(bean.getCurrentThreadAllocatedBytes() - allocated);
+				});
+				worker.start();
+				try {
+					worker.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			System.out.printf("%-32s round %d: %8.1f ns/task %8.1f bytes/task%n", name, r,
+					(double) nanos.get() / tasks, (double) bytes.get() / tasks);
+		}
+	}
+}
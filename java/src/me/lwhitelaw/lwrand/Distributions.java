@@ -0,0 +1,500 @@
+package me.lwhitelaw.lwrand;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Samplers for common non-uniform distributions. Each sampler is created once for a set of parameters, precomputing
+ * everything that does not depend on the random input, and can then draw from any {@linkplain RandomGenerator} without
+ * allocating. Samplers hold no mutable state and may be shared between threads.
+ * <br>
+ * The algorithms are chosen to need few uniforms per sample at any parameter value:
+ * <ul>
+ * <li>Poisson: inversion of a precomputed table for small means, Hormann's PTRS transformed rejection otherwise</li>
+ * <li>Binomial: sequential inversion (BINV) for small means, Hormann's BTRD transformed rejection otherwise</li>
+ * <li>Gamma: Marsaglia and Tsang's method, with normal values from a ziggurat</li>
+ * <li>Beta: the ratio of two gamma values, taken in logarithms when a shape is below 1</li>
+ * </ul>
+ * All floating-point functions come from {@linkplain StrictMath}, so the output for a given generator sequence is the same on
+ * every platform.
+ * @author lwhitelaw
+ *
+ */
+public final class Distributions {
+	private static final double HALF_LOG_2PI = 0.5 * StrictMath.log(2 * Math.PI);
+	private static final double[] FC = new double[10]; // Stirling series corrections for 0-9
+	private static final double MIN_BETA_SHAPE = 1e-300; // keeps the log of a boosted gamma value finite
+	
+	static {
+		double logFactorial = 0;
+		for (int k = 0; k < FC.length; k++) {
+			if (k > 0) logFactorial += StrictMath.log(k);
+			FC[k] = logFactorial - ((k + 0.5) * StrictMath.log(k + 1) - (k + 1) + HALF_LOG_2PI);
+		}
+	}
+	
+	private Distributions() {}
+	
+	/**
+	 * Return a sampler for the Poisson distribution.
+	 * @param mean the mean, from 0 to 2^62
+	 * @return the sampler
+	 */
+	public static Poisson poisson(double mean) {
+		if (!(mean >= 0 && mean <= 0x1.0p62)) {
+			throw new IllegalArgumentException("mean must be in range 0-2^62");
+		}
+		return new Poisson(mean);
+	}
+	
+	/**
+	 * Return a sampler for the binomial distribution.
+	 * @param trials the number of trials, at least 0
+	 * @param probability the probability of success of each trial, from 0 to 1
+	 * @return the sampler
+	 */
+	public static Binomial binomial(int trials, double probability) {
+		if (trials < 0) {
+			throw new IllegalArgumentException("trials must be non-negative");
+		}
+		if (!(probability >= 0 && probability <= 1)) {
+			throw new IllegalArgumentException("probability must be in range 0-1");
+		}
+		return new Binomial(trials, probability);
+	}
+	
+	/**
+	 * Return a sampler for the gamma distribution.
+	 * @param shape the shape parameter, must be positive
+	 * @param scale the scale parameter, must be positive
+	 * @return the sampler
+	 */
+	public static Gamma gamma(double shape, double scale) {
+		if (!(shape > 0 && shape < Double.POSITIVE_INFINITY)) {
+			throw new IllegalArgumentException("shape must be positive");
+		}
+		if (!(scale > 0 && scale < Double.POSITIVE_INFINITY)) {
+			throw new IllegalArgumentException("scale must be positive");
+		}
+		return new Gamma(shape, scale);
+	}
+	
+	/**
+	 * Return a sampler for the beta distribution.
+	 * @param alpha the first shape parameter, at least 1e-300 and finite
+	 * @param beta the second shape parameter, at least 1e-300 and finite
+	 * @return the sampler
+	 */
+	public static Beta beta(double alpha, double beta) {
+		if (!(alpha >= MIN_BETA_SHAPE && alpha < Double.POSITIVE_INFINITY && beta >= MIN_BETA_SHAPE && beta < Double.POSITIVE_INFINITY)) {
+			throw new IllegalArgumentException("shape parameters must be at least 1e-300 and finite");
+		}
+		return new Beta(alpha, beta);
+	}
+	
+	/**
+	 * Return the correction term of Stirling's series for log(k!), that is log(k!) - ((k + 1/2)log(k + 1) - (k + 1) + log(2 pi)/2).
+	 */
+	static double stirlingCorrection(long k) {
+		if (k < FC.length) return FC[(int) k];
+		double r = 1.0 / (k + 1);
+		double rr = r * r;
+		return (1.0 / 12 - (1.0 / 360 - rr / 1260) * rr) * r;
+	}
+	
+	/**
+	 * Return log(k!).
+	 */
+	static double logFactorial(long k) {
+		return (k + 0.5) * StrictMath.log(k + 1) - (k + 1) + HALF_LOG_2PI + stirlingCorrection(k);
+	}
+	
+	/**
+	 * A sampler for the Poisson distribution with a fixed mean.
+	 */
+	public static final class Poisson {
+		private static final double INVERSION_LIMIT = 10; // means below this use the table
+		
+		private final double mean;
+		// inversion
+		private final double[] cdf;
+		// PTRS
+		private final double logMean;
+		private final double a;
+		private final double b;
+		private final double logInvAlpha;
+		private final double vr;
+		
+		private Poisson(double mean) {
+			this.mean = mean;
+			if (mean < INVERSION_LIMIT) {
+				// cumulative probabilities until the remainder is below double precision
+				double[] table = new double[64];
+				double p = StrictMath.exp(-mean);
+				double sum = 0;
+				int k = 0;
+				while (true) {
+					sum += p;
+					table[k] = sum;
+					k++;
+					p *= mean / k;
+					if (sum >= 1 || p < 0x1.0p-60 * sum || k == table.length) break;
+				}
+				table[k - 1] = 1; // close the table so the search always ends
+				cdf = Arrays.copyOf(table, k);
+				logMean = a = b = logInvAlpha = vr = 0;
+			} else {
+				cdf = null;
+				logMean = StrictMath.log(mean);
+				b = 0.931 + 2.53 * StrictMath.sqrt(mean);
+				a = -0.059 + 0.02483 * b;
+				logInvAlpha = StrictMath.log(1.1239 + 1.1328 / (b - 3.4));
+				vr = 0.9277 - 3.6224 / (b - 2);
+			}
+		}
+		
+		/**
+		 * Return the mean of this distribution.
+		 * @return the mean
+		 */
+		public double mean() {
+			return mean;
+		}
+		
+		/**
+		 * Draw a value from this distribution.
+		 * @param rng the generator to draw from
+		 * @return a Poisson-distributed value
+		 */
+		public long sample(RandomGenerator rng) {
+			if (cdf != null) {
+				double u = rng.nextDouble();
+				int k = 0;
+				while (u >= cdf[k]) k++;
+				return k;
+			}
+			for (;;) {
+				double u = rng.nextDouble() - 0.5;
+				double v = rng.nextDouble();
+				double us = 0.5 - Math.abs(u);
+				long k = (long) Math.floor((2 * a / us + b) * u + mean + 0.43);
+				if (us >= 0.07 && v <= vr) return k; // inside the squeeze
+				if (k < 0 || (us < 0.013 && v > us)) continue;
+				if (StrictMath.log(v) + logInvAlpha - StrictMath.log(a / (us * us) + b) <= -mean + k * logMean - logFactorial(k)) {
+					return k;
+				}
+			}
+		}
+		
+		/**
+		 * Fill an array with values from this distribution.
+		 * @param rng the generator to draw from
+		 * @param dst the array to fill
+		 */
+		public void fill(RandomGenerator rng, long[] dst) {
+			for (int i = 0; i < dst.length; i++) dst[i] = sample(rng);
+		}
+	}
+	
+	/**
+	 * A sampler for the binomial distribution with a fixed number of trials and probability of success.
+	 */
+	public static final class Binomial {
+		private static final double INVERSION_LIMIT = 10; // means below this use BINV
+		
+		private final int trials;
+		private final double probability;
+		private final boolean flip; // sampling n - X with probability 1 - p
+		private final double p; // the smaller of probability and 1 - probability
+		// BINV
+		private final double q0; // probability of zero successes
+		private final double s;
+		private final double a0;
+		private final int bound;
+		// BTRD
+		private final int m;
+		private final double r;
+		private final double nr;
+		private final double npq;
+		private final double a;
+		private final double b;
+		private final double c;
+		private final double alpha;
+		private final double vr;
+		private final double urvr;
+		private final double h;
+		
+		private Binomial(int trials, double probability) {
+			this.trials = trials;
+			this.probability = probability;
+			flip = probability > 0.5;
+			p = flip ? 1 - probability : probability;
+			double q = 1 - p;
+			double mean = trials * p;
+			if (mean < INVERSION_LIMIT) {
+				q0 = StrictMath.exp(trials * StrictMath.log1p(-p));
+				s = p / q;
+				a0 = (trials + 1) * s;
+				bound = (int) Math.min(trials, mean + 10 * StrictMath.sqrt(mean * q + 1));
+				m = 0;
+				r = nr = npq = a = b = c = alpha = vr = urvr = h = 0;
+			} else {
+				q0 = s = a0 = 0;
+				bound = 0;
+				m = (int) Math.floor((trials + 1) * p);
+				r = p / q;
+				nr = (trials + 1) * r;
+				npq = mean * q;
+				double spq = StrictMath.sqrt(npq);
+				b = 1.15 + 2.53 * spq;
+				a = -0.0873 + 0.0248 * b + 0.01 * p;
+				c = mean + 0.5;
+				alpha = (2.83 + 5.1 / b) * spq;
+				vr = 0.92 - 4.2 / b;
+				urvr = 0.86 * vr;
+				double nm = trials - m + 1;
+				h = (m + 0.5) * StrictMath.log((m + 1) / (r * nm)) + stirlingCorrection(m) + stirlingCorrection(trials - m);
+			}
+		}
+		
+		/**
+		 * Return the number of trials of this distribution.
+		 * @return the number of trials
+		 */
+		public int trials() {
+			return trials;
+		}
+		
+		/**
+		 * Return the probability of success of each trial of this distribution.
+		 * @return the probability
+		 */
+		public double probability() {
+			return probability;
+		}
+		
+		/**
+		 * Draw a value from this distribution.
+		 * @param rng the generator to draw from
+		 * @return a binomially distributed value
+		 */
+		public int sample(RandomGenerator rng) {
+			if (p == 0) return flip ? trials : 0;
+			int k = trials * p < INVERSION_LIMIT ? inversion(rng) : btrd(rng);
+			return flip ? trials - k : k;
+		}
+		
+		private int inversion(RandomGenerator rng) {
+			for (;;) {
+				double u = rng.nextDouble();
+				double pk = q0;
+				int k = 0;
+				while (u > pk) {
+					u -= pk;
+					k++;
+					if (k > bound) break;
+					pk *= a0 / k - s;
+				}
+				if (k <= bound) return k;
+			}
+		}
+		
+		private int btrd(RandomGenerator rng) {
+			for (;;) {
+				double v = rng.nextDouble();
+				double u;
+				if (v <= urvr) {
+					// inside the squeeze, one uniform suffices
+					u = v / vr - 0.43;
+					return (int) Math.floor((2 * a / (0.5 - Math.abs(u)) + b) * u + c);
+				}
+				if (v >= vr) {
+					u = rng.nextDouble() - 0.5;
+				} else {
+					u = v / vr - 0.93;
+					u = Math.copySign(0.5, u) - u;
+					v = rng.nextDouble() * vr;
+				}
+				double us = 0.5 - Math.abs(u);
+				double kd = Math.floor((2 * a / us + b) * u + c);
+				if (kd < 0 || kd > trials) continue;
+				int k = (int) kd;
+				v = v * alpha / (a / (us * us) + b);
+				int km = Math.abs(k - m);
+				if (km <= 15) {
+					// evaluate f(k)/f(m) by recurrence
+					double f = 1;
+					if (m < k) {
+						for (int i = m + 1; i <= k; i++) f *= nr / i - r;
+					} else if (m > k) {
+						for (int i = k + 1; i <= m; i++) v *= nr / i - r;
+					}
+					if (v <= f) return k;
+					continue;
+				}
+				// squeeze on log f(k)/f(m)
+				v = StrictMath.log(v);
+				double rho = (km / npq) * (((km / 3.0 + 0.625) * km + 1.0 / 6) / npq + 0.5);
+				double t = -km * (double) km / (2 * npq);
+				if (v < t - rho) return k;
+				if (v > t + rho) continue;
+				double nm = trials - m + 1;
+				double nk = trials - k + 1;
+				if (v <= h + (trials + 1) * StrictMath.log(nm / nk) + (k + 0.5) * StrictMath.log(nk * r / (k + 1))
+						- stirlingCorrection(k) - stirlingCorrection(trials - k)) {
+					return k;
+				}
+			}
+		}
+		
+		/**
+		 * Fill an array with values from this distribution.
+		 * @param rng the generator to draw from
+		 * @param dst the array to fill
+		 */
+		public void fill(RandomGenerator rng, int[] dst) {
+			for (int i = 0; i < dst.length; i++) dst[i] = sample(rng);
+		}
+	}
+	
+	/**
+	 * A sampler for the gamma distribution with a fixed shape and scale.
+	 */
+	public static final class Gamma {
+		private final double shape;
+		private final double scale;
+		private final double d;
+		private final double c;
+		private final double invShape; // for boosting shapes below 1
+		
+		private Gamma(double shape, double scale) {
+			this.shape = shape;
+			this.scale = scale;
+			// shapes below 1 sample with shape + 1 and multiply by U^(1/shape)
+			d = (shape < 1 ? shape + 1 : shape) - 1.0 / 3;
+			c = 1 / StrictMath.sqrt(9 * d);
+			invShape = shape < 1 ? 1 / shape : 0;
+		}
+		
+		/**
+		 * Return the shape parameter of this distribution.
+		 * @return the shape
+		 */
+		public double shape() {
+			return shape;
+		}
+		
+		/**
+		 * Return the scale parameter of this distribution.
+		 * @return the scale
+		 */
+		public double scale() {
+			return scale;
+		}
+		
+		/**
+		 * Draw a value from this distribution.
+		 * @param rng the generator to draw from
+		 * @return a gamma-distributed value
+		 */
+		public double sample(RandomGenerator rng) {
+			double x = standard(rng);
+			if (invShape != 0) x *= StrictMath.pow(1.0 - rng.nextDouble(), invShape);
+			return x * scale;
+		}
+		
+		/**
+		 * Return the logarithm of a value from this distribution with scale 1. Unlike {@linkplain #sample(RandomGenerator)},
+		 * the result does not underflow for tiny shapes.
+		 */
+		double logStandard(RandomGenerator rng) {
+			double x = StrictMath.log(standard(rng));
+			if (invShape != 0) x += StrictMath.log(1.0 - rng.nextDouble()) * invShape;
+			return x;
+		}
+		
+		/**
+		 * Marsaglia and Tsang's method for shape d + 1/3 and scale 1.
+		 */
+		private double standard(RandomGenerator rng) {
+			for (;;) {
+				double x;
+				double v;
+				do {
+					x = Ziggurat.normal(rng);
+					v = 1 + c * x;
+				} while (v <= 0);
+				v = v * v * v;
+				double u = 1.0 - rng.nextDouble();
+				double xx = x * x;
+				if (u < 1 - 0.0331 * xx * xx) return d * v; // squeeze
+				if (StrictMath.log(u) < 0.5 * xx + d * (1 - v + StrictMath.log(v))) return d * v;
+			}
+		}
+		
+		/**
+		 * Fill an array with values from this distribution.
+		 * @param rng the generator to draw from
+		 * @param dst the array to fill
+		 */
+		public void fill(RandomGenerator rng, double[] dst) {
+			for (int i = 0; i < dst.length; i++) dst[i] = sample(rng);
+		}
+	}
+	
+	/**
+	 * A sampler for the beta distribution with fixed shape parameters.
+	 */
+	public static final class Beta {
+		private final Gamma x;
+		private final Gamma y;
+		
+		private Beta(double alpha, double beta) {
+			x = new Gamma(alpha, 1);
+			y = new Gamma(beta, 1);
+		}
+		
+		/**
+		 * Return the first shape parameter of this distribution.
+		 * @return alpha
+		 */
+		public double alpha() {
+			return x.shape();
+		}
+		
+		/**
+		 * Return the second shape parameter of this distribution.
+		 * @return beta
+		 */
+		public double beta() {
+			return y.shape();
+		}
+		
+		/**
+		 * Draw a value from this distribution.
+		 * @param rng the generator to draw from
+		 * @return a beta-distributed value
+		 */
+		public double sample(RandomGenerator rng) {
+			if (x.shape() >= 1 && y.shape() >= 1) {
+				double gx = x.sample(rng);
+				return gx / (gx + y.sample(rng));
+			}
+			// gamma values for shapes below 1 can underflow, so take the ratio of logarithms
+			double lx = x.logStandard(rng);
+			double ly = y.logStandard(rng);
+			if (lx >= ly) return 1 / (1 + StrictMath.exp(ly - lx));
+			double t = StrictMath.exp(lx - ly);
+			return t / (1 + t);
+		}
+		
+		/**
+		 * Fill an array with values from this distribution.
+		 * @param rng the generator to draw from
+		 * @param dst the array to fill
+		 */
+		public void fill(RandomGenerator rng, double[] dst) {
+			for (int i = 0; i < dst.length; i++) dst[i] = sample(rng);
+		}
+	}
+}
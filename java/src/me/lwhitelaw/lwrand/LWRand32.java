@@ -1,6 +1,20 @@
 package me.lwhitelaw.lwrand;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 import java.util.random.RandomGenerator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * A counter-based PRNG with a period of 2^64 - 2^32, emitting 32-bit values and supporting 2^31 independent streams.
@@ -13,20 +27,39 @@ import java.util.random.RandomGenerator;
  * LWRand32 can also have a stream configured to one of 2^31 possible independent stream values using the {@linkplain #setStream(int)} method.
  * The default stream is stream 0. Generators with different stream values will produce entirely different sequences of values.
  * <br>
+ * Since both cores are simple counters, the generator can be moved any distance through its sequence in constant time
+ * using {@linkplain #advance(long)} or {@linkplain #jump(BigInteger)}.
+ * <br>
+ * The streams returned by {@linkplain #ints(long)}, {@linkplain #longs(long)} and {@linkplain #doubles(long)} split by counter
+ * ranges, so parallel streams produce exactly the same elements as sequential ones.
+ * <br>
  * 64-bit systems should prefer LWRand64 over this generator due to a larger period, better statistical quality, and faster speed on those systems.
  * @author lwhitelaw
  *
  */
-public class LWRand32 implements RandomGenerator {
+public class LWRand32 implements RandomGenerator.ArbitrarilyJumpableGenerator {
+	/**
+	 * The number of ints used by {@linkplain #saveState(int[], int)}.
+	 */
+	public static final int STATE_LENGTH = 3;
+	
+	private static final long PERIOD_D = 0xFFFFFFFFL; // period of d
+	private static final double PERIOD = 0x1P+64 - 0x1P+32;
+	private static final long THREAD_SEED = (System.currentTimeMillis() << 32) ^ System.nanoTime(); // clock is read once
+	private static final AtomicLong THREAD_INDEX = new AtomicLong(); // next thread-local generator
 	private static final ThreadLocal<LWRand32> TLR = ThreadLocal.withInitial(() -> {
-		int sysHashCode = System.identityHashCode(Thread.currentThread());
-		return new LWRand32().setStream(sysHashCode);
+		long index = THREAD_INDEX.getAndIncrement();
+		LWRand32 rng = new LWRand32(THREAD_SEED).setStream((int) index);
+		// spread core B starting points by multiples of (2^32-1)/phi, so they stay far apart however many threads exist
+		rng.d = addD(rng.d, Long.remainderUnsigned((index % PERIOD_D) * 0x9E3779B9L, PERIOD_D));
+		return rng;
 	});
+	private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
 	
-	private int c; // counter (traverses all 2^32)
-	private int d; // counter (traverses 2^32-1 states, 0x00000000-0xFFFFFFFE)
+	int c; // counter (traverses all 2^32)
+	int d; // counter (traverses 2^32-1 states, 0x00000000-0xFFFFFFFE)
 	
-	private int stream; // increment of c (any odd number, forms Weyl sequence)
+	int stream; // increment of c (any odd number, forms Weyl sequence)
 	
 	/**
 	 * Construct a generator with a seed derived from the system clock.
@@ -50,8 +83,101 @@ public class LWRand32 implements RandomGenerator {
 	}
 	
 	/**
-	 * Return a thread-local generator. The generator is preseeded with the system clock and uses a stream based on the thread's
-	 * identity hash code.
+	 * Construct a generator from a seed of any length. The seed is folded down to 64 bits and spread over both counters
+	 * and the stream by the mix functions, so similar seeds give unrelated generators.
+	 * @param seed the seed to use
+	 */
+	public LWRand32(byte[] seed) {
+		int h = seed.length;
+		int l = ~h;
+		int i = 0;
+		for (; i + 4 <= seed.length; i += 4) {
+			int w = (int) INT_LE.get(seed, i);
+			h = mix(h ^ w);
+			l = mix2(l + w);
+		}
+		if (i < seed.length) {
+			int w = 0;
+			for (int j = seed.length - 1; j >= i; j--) w = (w << 8) | (seed[j] & 0xFF);
+			h = mix(h ^ w);
+			l = mix2(l + w);
+		}
+		expand(h, l);
+	}
+	
+	/**
+	 * Copy constructor.
+	 * @param other the generator to copy
+	 */
+	private LWRand32(LWRand32 other) {
+		copyFrom(other);
+	}
+	
+	/**
+	 * Return a new generator seeded from a string, such as a name or a passphrase. The characters are folded in the same
+	 * way as {@linkplain #LWRand32(byte[])} folds bytes.
+	 * @param seed the seed to use
+	 * @return a new generator
+	 */
+	public static LWRand32 fromSeed(CharSequence seed) {
+		int length = seed.length();
+		int h = length;
+		int l = ~h;
+		for (int i = 0; i < length; i += 2) {
+			int w = 0;
+			for (int j = Math.min(i + 2, length) - 1; j >= i; j--) w = (w << 16) | seed.charAt(j);
+			h = mix(h ^ w);
+			l = mix2(l + w);
+		}
+		LWRand32 rng = new LWRand32(0);
+		rng.expand(h, l);
+		return rng;
+	}
+	
+	/**
+	 * Return a new generator seeded with two ints drawn from another generator.
+	 * @param master the generator to draw the seed from
+	 * @return a new generator
+	 */
+	public static LWRand32 fromGenerator(RandomGenerator master) {
+		LWRand32 rng = new LWRand32(0);
+		rng.expand(master.nextInt(), master.nextInt());
+		return rng;
+	}
+	
+	/**
+	 * Fill an array with new generators derived from one seed. The seed is folded to 32 bits and the array index is used
+	 * as the other half, so for a given seed the generators start with distinct core A counters and no two start in the
+	 * same state. Their core B counters and streams are derived independently and may occasionally coincide.
+	 * @param dst the array to fill
+	 * @param seed the seed to use
+	 */
+	public static void fill(LWRand32[] dst, long seed) {
+		int h = mix((int) (seed >>> 32)) ^ (int) seed;
+		for (int i = 0; i < dst.length; i++) {
+			LWRand32 rng = new LWRand32(0);
+			rng.expand(h, i);
+			dst[i] = rng;
+		}
+	}
+	
+	/**
+	 * Set the state from a 64-bit seed given as two halves. For a fixed <code>h</code>, distinct values of <code>l</code>
+	 * give distinct values of c.
+	 * @param h the first half of the seed
+	 * @param l the second half of the seed
+	 */
+	private void expand(int h, int l) {
+		int mh = mix2(h);
+		c = mix(l + mh);
+		d = mix2(h ^ mix(l)); if (d == 0xFFFFFFFF) d = 0; // prevent d being outside of range
+		stream = mix(~mh ^ l) | 1;
+	}
+	
+	/**
+	 * Return a thread-local generator. Each thread's generator is given its own stream in order of first use, so streams are
+	 * distinct for the first 2^31 threads in the JVM. All of them share a seed read once from the system clock, with core B
+	 * starting points spread evenly over its period.
 	 * @return the thread-local generator
 	 */
 	public static LWRand32 threadLocal() {
@@ -84,6 +210,26 @@ public class LWRand32 implements RandomGenerator {
 		d++; if (d == 0xFFFFFFFF) d = 0; // wrap d as needed
 	}
 	
+	/**
+	 * Advance the generator by the given number of steps in constant time. This is equivalent to calling {@linkplain #advance()}
+	 * <code>n</code> times.
+	 * @param n the number of steps, treated as an unsigned value
+	 */
+	public void advance(long n) {
+		c += (int) n * stream;
+		d = addD(d, Long.remainderUnsigned(n, PERIOD_D));
+	}
+	
+	/**
+	 * Add an offset to counter d modulo 2^32-1.
+	 * @param d counter value in range
+	 * @param n offset in range 0x00000000-0xFFFFFFFE
+	 * @return the new counter value
+	 */
+	private static int addD(int d, long n) {
+		return (int) (((d & 0xFFFFFFFFL) + n) % PERIOD_D);
+	}
+	
 	/**
 	 * Return true if the state of both internal counters are zero.
 	 * @return true if both counters are zero
@@ -101,13 +247,34 @@ public class LWRand32 implements RandomGenerator {
 		advance();
 		return (mix(c) ^ mix2(d)) >>> (32 - bits);
 	}
-
+	
+	/**
+	 * Compute the output of a generator at any position without constructing it. The result is the value that the
+	 * <code>index</code>-th call (counting from zero) to {@linkplain #nextInt()} would return on
+	 * <code>new LWRand32(seed).setStream(stream)</code>. This method keeps no state, so it may be used as a
+	 * counter-based generator from any number of threads.
+	 * @param seed the seed
+	 * @param stream the stream ID
+	 * @param index the position in the sequence, treated as an unsigned value
+	 * @return the value at that position
+	 */
+	public static int valueAt(long seed, int stream, long index) {
+		int inc = (stream << 1) | 1;
+		int c = (int) ((seed >>> 32) & 0x00000000FFFFFFFFL);
+		int d = (int) (seed & 0x00000000FFFFFFFFL);
+		if (d == 0xFFFFFFFF) d = 0;
+		c += (int) (index + 1) * inc;
+		d = addD(d, Long.remainderUnsigned(index, PERIOD_D));
+		d++; if (d == 0xFFFFFFFF) d = 0;
+		return mix(c) ^ mix2(d);
+	}
+	
 	/**
 	 * Mix function core A.
 	 * @param c counter input
 	 * @return mixed value
 	 */
-	private int mix(int c) {
+	static int mix(int c) {
 		int v = c;
 		
 		// Optimised set
@@ -130,7 +297,7 @@ public class LWRand32 implements RandomGenerator {
 	 * @param d counter input
 	 * @return mixed value
 	 */
-	private int mix2(int d) {
+	static int mix2(int d) {
 		int v = d;
 		// Optimised set
 		v += 0x38A341AF; v ^= v << 13;
@@ -163,15 +330,481 @@ public class LWRand32 implements RandomGenerator {
 		return ((next(32) & 0xFFFFFFFFL) << 32) | (next(32) & 0xFFFFFFFFL);
 	}
 	
+	/**
+	 * Fill an array with random ints. The values produced are identical to calling {@linkplain #nextInt()} once per element.
+	 * @param dst the array to fill
+	 */
+	public void nextInts(int[] dst) {
+		nextInts(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with random ints. The values produced are identical to calling {@linkplain #nextInt()} once per element.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void nextInts(int[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		int c = this.c;
+		int d = this.d;
+		final int stream = this.stream;
+		for (int i = off; i < off + len; i++) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			dst[i] = mix(c) ^ mix2(d);
+		}
+		this.c = c;
+		this.d = d;
+	}
+	
+	/**
+	 * Fill an array with random longs. The values produced are identical to calling {@linkplain #nextLong()} once per element.
+	 * @param dst the array to fill
+	 */
+	public void nextLongs(long[] dst) {
+		nextLongs(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with random longs. The values produced are identical to calling {@linkplain #nextLong()} once per element.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void nextLongs(long[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		int c = this.c;
+		int d = this.d;
+		final int stream = this.stream;
+		for (int i = off; i < off + len; i++) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int hi = mix(c) ^ mix2(d);
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int lo = mix(c) ^ mix2(d);
+			dst[i] = ((hi & 0xFFFFFFFFL) << 32) | (lo & 0xFFFFFFFFL);
+		}
+		this.c = c;
+		this.d = d;
+	}
+	
+	/**
+	 * Fill an array with random doubles between zero (inclusive) and one (exclusive). The values produced are identical to calling
+	 * {@linkplain #nextDouble()} once per element.
+	 * @param dst the array to fill
+	 */
+	public void nextDoubles(double[] dst) {
+		nextDoubles(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with random doubles between zero (inclusive) and one (exclusive). The values produced are identical to
+	 * calling {@linkplain #nextDouble()} once per element.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void nextDoubles(double[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		int c = this.c;
+		int d = this.d;
+		final int stream = this.stream;
+		for (int i = off; i < off + len; i++) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int hi = mix(c) ^ mix2(d);
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int lo = mix(c) ^ mix2(d);
+			dst[i] = ((((hi & 0xFFFFFFFFL) << 32) | (lo & 0xFFFFFFFFL)) >>> 11) * 0x1.0p-53;
+		}
+		this.c = c;
+		this.d = d;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Bytes are produced exactly as the default implementation would from {@linkplain #nextLong()}, but each 32-bit output is
+	 * stored at once. Since {@linkplain #nextLong()} places the first output in the high half, each 8-byte group holds the second
+	 * output followed by the first.
+	 */
+	@Override
+	public void nextBytes(byte[] bytes) {
+		int len = bytes.length;
+		int c = this.c;
+		int d = this.d;
+		final int stream = this.stream;
+		int i = 0;
+		for (; i + 8 <= len; i += 8) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int hi = mix(c) ^ mix2(d);
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int lo = mix(c) ^ mix2(d);
+			INT_LE.set(bytes, i, lo);
+			INT_LE.set(bytes, i + 4, hi);
+		}
+		// tail uses the low bytes of one more long, which always consumes two outputs
+		if (i < len) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int hi = mix(c) ^ mix2(d);
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int lo = mix(c) ^ mix2(d);
+			for (long v = ((hi & 0xFFFFFFFFL) << 32) | (lo & 0xFFFFFFFFL); i < len; v >>>= 8) {
+				bytes[i++] = (byte) v;
+			}
+		}
+		this.c = c;
+		this.d = d;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The stream is equivalent to {@linkplain #ints(long) ints(Long.MAX_VALUE)}.
+	 */
+	@Override
+	public IntStream ints() {
+		return ints(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The elements are those that <code>streamSize</code> calls to {@linkplain #nextInt()} would return, and this generator
+	 * is moved past them immediately. The stream splits efficiently for parallel use.
+	 */
+	@Override
+	public IntStream ints(long streamSize) {
+		checkStreamSize(streamSize);
+		IntsSpliterator split = new IntsSpliterator(c, d, stream, 0, streamSize);
+		advance(streamSize);
+		return StreamSupport.intStream(split, false);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The stream is equivalent to {@linkplain #longs(long) longs(Long.MAX_VALUE)}.
+	 */
+	@Override
+	public LongStream longs() {
+		return longs(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The elements are those that <code>streamSize</code> calls to {@linkplain #nextLong()} would return, and this generator
+	 * is moved past them immediately. The stream splits efficiently for parallel use.
+	 */
+	@Override
+	public LongStream longs(long streamSize) {
+		checkStreamSize(streamSize);
+		LongsSpliterator split = new LongsSpliterator(c, d, stream, 0, streamSize);
+		advance(streamSize << 1); // treated as unsigned, so Long.MAX_VALUE elements still fits
+		return StreamSupport.longStream(split, false);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The stream is equivalent to {@linkplain #doubles(long) doubles(Long.MAX_VALUE)}.
+	 */
+	@Override
+	public DoubleStream doubles() {
+		return doubles(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The elements are those that <code>streamSize</code> calls to {@linkplain #nextDouble()} would return, and this generator
+	 * is moved past them immediately. The stream splits efficiently for parallel use.
+	 */
+	@Override
+	public DoubleStream doubles(long streamSize) {
+		return longs(streamSize).mapToDouble(v -> (v >>> 11) * 0x1.0p-53);
+	}
+	
+	private static void checkStreamSize(long streamSize) {
+		if (streamSize < 0) {
+			throw new IllegalArgumentException("size must be non-negative");
+		}
+	}
+	
 	/**
 	 * Copy this generator.
 	 * @return a copy
 	 */
+	@Override
 	public LWRand32 copy() {
-		LWRand32 copy = new LWRand32();
-		copy.c = this.c;
-		copy.d = this.d;
-		copy.stream = this.stream;
-		return copy;
+		return new LWRand32(this);
+	}
+	
+	/**
+	 * Set the state of this generator to that of another generator, so that both produce the same values from then on.
+	 * @param other the generator to copy
+	 * @return this generator
+	 */
+	public LWRand32 copyFrom(LWRand32 other) {
+		c = other.c;
+		d = other.d;
+		stream = other.stream;
+		return this;
+	}
+	
+	/**
+	 * Write the state of this generator to an array.
+	 * @param dst the array to write to, at least {@linkplain #STATE_LENGTH} long
+	 */
+	public void saveState(int[] dst) {
+		saveState(dst, 0);
+	}
+	
+	/**
+	 * Write the state of this generator to a range of an array, so that many states can be kept in one array.
+	 * @param dst the array to write to
+	 * @param off the first index to write
+	 */
+	public void saveState(int[] dst, int off) {
+		Objects.checkFromIndexSize(off, STATE_LENGTH, dst.length);
+		dst[off] = c;
+		dst[off + 1] = d;
+		dst[off + 2] = stream;
+	}
+	
+	/**
+	 * Set the state of this generator from an array written by {@linkplain #saveState(int[])}.
+	 * @param src the array to read from
+	 * @throws IllegalArgumentException if the array does not hold a valid state
+	 */
+	public void restoreState(int[] src) {
+		restoreState(src, 0);
+	}
+	
+	/**
+	 * Set the state of this generator from a range of an array written by {@linkplain #saveState(int[], int)}.
+	 * @param src the array to read from
+	 * @param off the first index to read
+	 * @throws IllegalArgumentException if the array does not hold a valid state
+	 */
+	public void restoreState(int[] src, int off) {
+		Objects.checkFromIndexSize(off, STATE_LENGTH, src.length);
+		if (src[off + 1] == 0xFFFFFFFF || (src[off + 2] & 1) == 0) {
+			throw new IllegalArgumentException("invalid state");
+		}
+		c = src[off];
+		d = src[off + 1];
+		stream = src[off + 2];
+	}
+	
+	/**
+	 * Jump the state by 2^32 states.
+	 */
+	@Override
+	public void jump() {
+		// c has period 2^32 and does not change; 2^32 is 1 modulo 2^32-1
+		d++; if (d == 0xFFFFFFFF) d = 0;
+	}
+	
+	@Override
+	public double jumpDistance() {
+		return 0x1P+32; // 2^32
+	}
+	
+	/**
+	 * Jump the state by 2^48 states.
+	 */
+	@Override
+	public void leap() {
+		// As with jump(), c does not change, and 2^48 is 2^16 modulo 2^32-1.
+		d = addD(d, 0x00010000L);
+	}
+	
+	@Override
+	public double leapDistance() {
+		return 0x1P+48; // 2^48
+	}
+	
+	/**
+	 * Jump the state by 2^<code>logDistance</code> states.
+	 * @param logDistance the base-2 logarithm of the distance, from 0-63
+	 * @throws IllegalArgumentException if <code>logDistance</code> is out of range
+	 */
+	@Override
+	public void jumpPowerOfTwo(int logDistance) {
+		if (logDistance < 0 || logDistance > 63) {
+			throw new IllegalArgumentException("logDistance must be in range 0-63");
+		}
+		if (logDistance < 32) c += stream << logDistance;
+		d = addD(d, 1L << (logDistance & 31)); // 2^32 is 1 modulo 2^32-1
+	}
+	
+	/**
+	 * Jump the state by the given number of states. The fractional part of the distance is discarded.
+	 * @param distance the distance to jump
+	 * @throws IllegalArgumentException if <code>distance</code> is negative, not finite, or greater than the period
+	 */
+	@Override
+	public void jump(double distance) {
+		if (!(distance >= 0.0 && distance <= PERIOD)) {
+			throw new IllegalArgumentException("distance must be between 0 and the period");
+		}
+		jump(new BigDecimal(distance).toBigInteger());
+	}
+	
+	/**
+	 * Jump the state by the given number of states. Negative distances move the generator backward.
+	 * @param distance the distance to jump
+	 */
+	public void jump(BigInteger distance) {
+		c += distance.intValue() * stream; // low 32 bits are the distance modulo 2^32
+		d = addD(d, distance.mod(BigInteger.valueOf(PERIOD_D)).longValue());
+	}
+	
+	/**
+	 * Spliterator over the outputs of a range of counter positions.
+	 */
+	private static final class IntsSpliterator implements Spliterator.OfInt {
+		private int c; // counters of the position before index
+		private int d;
+		private final int stream;
+		private long index; // next position to emit
+		private final long fence; // position to stop at
+		
+		IntsSpliterator(int c, int d, int stream, long index, long fence) {
+			this.c = c;
+			this.d = d;
+			this.stream = stream;
+			this.index = index;
+			this.fence = fence;
+		}
+		
+		@Override
+		public IntsSpliterator trySplit() {
+			long lo = index;
+			long mid = (lo + fence) >>> 1;
+			if (mid <= lo) return null;
+			IntsSpliterator prefix = new IntsSpliterator(c, d, stream, lo, mid);
+			// skip this spliterator ahead to mid
+			c += (int) (mid - lo) * stream;
+			d = addD(d, (mid - lo) % PERIOD_D);
+			index = mid;
+			return prefix;
+		}
+		
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			Objects.requireNonNull(action);
+			if (index >= fence) return false;
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			index++;
+			action.accept(mix(c) ^ mix2(d));
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			Objects.requireNonNull(action);
+			int c = this.c;
+			int d = this.d;
+			for (long i = index; i < fence; i++) {
+				c += stream;
+				d++; if (d == 0xFFFFFFFF) d = 0;
+				action.accept(mix(c) ^ mix2(d));
+			}
+			this.c = c;
+			this.d = d;
+			index = fence;
+		}
+		
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+		
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
+	}
+	
+	/**
+	 * Spliterator over pairs of outputs from a range of counter positions, each pair combined as {@linkplain #nextLong()} does.
+	 */
+	private static final class LongsSpliterator implements Spliterator.OfLong {
+		private int c; // counters of the position before pair index
+		private int d;
+		private final int stream;
+		private long index; // next pair to emit
+		private final long fence; // pair to stop at
+		
+		LongsSpliterator(int c, int d, int stream, long index, long fence) {
+			this.c = c;
+			this.d = d;
+			this.stream = stream;
+			this.index = index;
+			this.fence = fence;
+		}
+		
+		@Override
+		public LongsSpliterator trySplit() {
+			long lo = index;
+			long mid = (lo + fence) >>> 1;
+			if (mid <= lo) return null;
+			LongsSpliterator prefix = new LongsSpliterator(c, d, stream, lo, mid);
+			// skip this spliterator ahead to mid, two positions per element
+			long steps = (mid - lo) << 1;
+			c += (int) steps * stream;
+			d = addD(d, Long.remainderUnsigned(steps, PERIOD_D));
+			index = mid;
+			return prefix;
+		}
+		
+		@Override
+		public boolean tryAdvance(LongConsumer action) {
+			Objects.requireNonNull(action);
+			if (index >= fence) return false;
+			index++;
+			action.accept(nextPair());
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(LongConsumer action) {
+			Objects.requireNonNull(action);
+			while (index < fence) {
+				index++;
+				action.accept(nextPair());
+			}
+		}
+		
+		private long nextPair() {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int hi = mix(c) ^ mix2(d);
+			c += stream;
+			d++; if (d == 0xFFFFFFFF) d = 0;
+			int lo = mix(c) ^ mix2(d);
+			return ((hi & 0xFFFFFFFFL) << 32) | (lo & 0xFFFFFFFFL);
+		}
+		
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+		
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
 	}
 }
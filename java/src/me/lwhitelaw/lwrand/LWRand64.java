@@ -1,6 +1,21 @@
 package me.lwhitelaw.lwrand;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 import java.util.random.RandomGenerator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A counter-based PRNG with a period of 2^128 - 2^64, emitting 64-bit values and supporting 2^63 independent streams. 32-bit values
@@ -15,19 +30,44 @@ import java.util.random.RandomGenerator;
  * <br>
  * LWRand64 can also have a stream configured to one of 2^63 possible independent stream values using the {@linkplain #setStream(long)} method.
  * The default stream is stream 0. Generators with different stream values will produce entirely different sequences of values.
+ * <br>
+ * Since both cores are simple counters, the generator can be moved any distance through its sequence in constant time
+ * using {@linkplain #advance(long)} or {@linkplain #jump(BigInteger)}.
+ * <br>
+ * Splitting assigns each child a stream ID that differs from its parent's in one bit not yet used by that lineage, so every
+ * generator in a split tree has its own stream until a lineage has split 63 times. Past that point, child streams are taken
+ * from the parent's output and are only distinct with high probability.
+ * <br>
+ * The streams returned by {@linkplain #ints(long)}, {@linkplain #longs(long)} and {@linkplain #doubles(long)} split by counter
+ * ranges, so parallel streams produce exactly the same elements as sequential ones.
  * @author lwhitelaw
  *
  */
-public class LWRand64 implements RandomGenerator.JumpableGenerator {
+public class LWRand64 implements RandomGenerator.ArbitrarilyJumpableGenerator, RandomGenerator.SplittableGenerator {
+	private static final long THREAD_SEEDH = System.nanoTime(); // clock is read once for all thread-local generators
+	private static final long THREAD_SEEDL = System.currentTimeMillis();
+	private static final AtomicLong THREAD_INDEX = new AtomicLong(); // next thread-local generator
 	private static final ThreadLocal<LWRand64> TLR = ThreadLocal.withInitial(() -> {
-		int sysHashCode = System.identityHashCode(Thread.currentThread());
-		return new LWRand64().setStream(sysHashCode);
+		long index = THREAD_INDEX.getAndIncrement();
+		LWRand64 rng = new LWRand64(THREAD_SEEDH, THREAD_SEEDL).setStream(index);
+		// spread core B starting points by multiples of (2^64-1)/phi, so they stay far apart however many threads exist
+		rng.d = addD(rng.d, mulD(index, 0x9E3779B9_7F4A7C15L));
+		return rng;
 	});
-
-	private long c; // counter (traverses all 2^64)
-	private long d; // counter (traverses 2^64-1 states, 0x0000000000000000-0xFFFFFFFFFFFFFFFE)
+	/**
+	 * The number of longs used by {@linkplain #saveState(long[], int)}.
+	 */
+	public static final int STATE_LENGTH = 5;
+	
+	private static final BigInteger PERIOD_D = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE); // period of d
+	private static final double PERIOD = 0x1P+128 - 0x1P+64;
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
 	
-	private long stream; // increment of c (any odd number, forms Weyl sequence)
+	long c; // counter (traverses all 2^64)
+	long d; // counter (traverses 2^64-1 states, 0x0000000000000000-0xFFFFFFFFFFFFFFFE)
+	
+	long stream; // increment of c (any odd number, forms Weyl sequence)
+	private int splitBits; // number of low stream ID bits assigned by splitting
 	
 	long value; // buffered bits from last RNG call
 	int haveBits; // number of valid bits in value
@@ -54,8 +94,114 @@ public class LWRand64 implements RandomGenerator.JumpableGenerator {
 	}
 	
 	/**
-	 * Return a thread-local generator. The generator is preseeded with the system clock and uses a stream based on the thread's
-	 * identity hash code.
+	 * Construct a generator from a 64-bit seed. Unlike {@linkplain #LWRand64(long, long)}, the seed is spread over both
+	 * counters and the stream by the mix functions, so similar seeds such as 1, 2 and 3 give unrelated generators.
+	 * Distinct seeds always give distinct generators.
+	 * @param seed the seed to use
+	 */
+	public LWRand64(long seed) {
+		expand(seed, 0);
+	}
+	
+	/**
+	 * Construct a generator from a seed of any length. The seed is folded down to 128 bits and then spread over the
+	 * counters and the stream as for {@linkplain #LWRand64(long)}.
+	 * @param seed the seed to use
+	 */
+	public LWRand64(byte[] seed) {
+		long h = seed.length;
+		long l = ~h;
+		int i = 0;
+		for (; i + 8 <= seed.length; i += 8) {
+			long w = (long) LONG_LE.get(seed, i);
+			h = mix(h ^ w);
+			l = mix2(l + w);
+		}
+		if (i < seed.length) {
+			long w = 0;
+			for (int j = seed.length - 1; j >= i; j--) w = (w << 8) | (seed[j] & 0xFF);
+			h = mix(h ^ w);
+			l = mix2(l + w);
+		}
+		expand(h, l);
+	}
+	
+	/**
+	 * Copy constructor.
+	 * @param other the generator to copy
+	 */
+	private LWRand64(LWRand64 other) {
+		copyFrom(other);
+	}
+	
+	/**
+	 * Return a new generator seeded from a string, such as a name or a passphrase. The characters are folded in the same
+	 * way as {@linkplain #LWRand64(byte[])} folds bytes.
+	 * @param seed the seed to use
+	 * @return a new generator
+	 */
+	public static LWRand64 fromSeed(CharSequence seed) {
+		int length = seed.length();
+		long h = length;
+		long l = ~h;
+		for (int i = 0; i < length; i += 4) {
+			long w = 0;
+			for (int j = Math.min(i + 4, length) - 1; j >= i; j--) w = (w << 16) | seed.charAt(j);
+			h = mix(h ^ w);
+			l = mix2(l + w);
+		}
+		LWRand64 rng = new LWRand64(0, 0);
+		rng.expand(h, l);
+		return rng;
+	}
+	
+	/**
+	 * Return a new generator seeded with two longs drawn from another generator.
+	 * @param master the generator to draw the seed from
+	 * @return a new generator
+	 */
+	public static LWRand64 fromGenerator(RandomGenerator master) {
+		LWRand64 rng = new LWRand64(0, 0);
+		rng.expand(master.nextLong(), master.nextLong());
+		return rng;
+	}
+	
+	/**
+	 * Fill an array with new generators derived from one seed. The first generator is the same as
+	 * <code>new LWRand64(seed)</code>. The array index is used as the second half of the seed, so the generators start
+	 * with distinct core A counters and no two start in the same state. Their core B counters and streams are derived
+	 * independently and may occasionally coincide.
+	 * @param dst the array to fill
+	 * @param seed the seed to use
+	 */
+	public static void fill(LWRand64[] dst, long seed) {
+		for (int i = 0; i < dst.length; i++) {
+			LWRand64 rng = new LWRand64(0, 0);
+			rng.expand(seed, i);
+			dst[i] = rng;
+		}
+	}
+	
+	/**
+	 * Set the state from a 128-bit seed given as two halves. For a fixed <code>h</code>, distinct values of <code>l</code>
+	 * give distinct values of c.
+	 * @param h the first half of the seed
+	 * @param l the second half of the seed
+	 */
+	private void expand(long h, long l) {
+		long mh = mix2(h);
+		c = mix(l + mh);
+		d = mix2(h ^ mix(l)); if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0; // prevent d being outside of range
+		stream = mix(~mh ^ l) | 1;
+		value = 0;
+		haveBits = 0;
+		splitBits = 0;
+	}
+	
+	/**
+	 * Return a thread-local generator. Each thread's generator is given its own stream in order of first use, so streams are
+	 * distinct for the first 2^63 threads in the JVM. All of them share a seed read once from the system clock, with core B
+	 * starting points spread evenly over its period.
 	 * @return the thread-local generator
 	 */
 	public static LWRand64 threadLocal() {
@@ -69,6 +215,7 @@ public class LWRand64 implements RandomGenerator.JumpableGenerator {
 	 */
 	public LWRand64 setStream(long streamId) {
 		stream = (streamId << 1) | 1L;
+		splitBits = 0;
 		return this;
 	}
 	
@@ -88,6 +235,45 @@ public class LWRand64 implements RandomGenerator.JumpableGenerator {
 		d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
 	}
 	
+	/**
+	 * Advance the generator by the given number of steps in constant time. This is equivalent to calling {@linkplain #advance()}
+	 * <code>n</code> times.
+	 * @param n the number of steps, treated as an unsigned value
+	 */
+	public void advance(long n) {
+		c += n * stream;
+		d = addD(d, n == 0xFFFFFFFF_FFFFFFFFL ? 0 : n); // reduce n modulo the period of d
+	}
+	
+	/**
+	 * Add an offset to counter d modulo 2^64-1.
+	 * @param d counter value in range
+	 * @param n offset in range 0x0000000000000000-0xFFFFFFFFFFFFFFFE
+	 * @return the new counter value
+	 */
+	static long addD(long d, long n) {
+		long sum = d + n;
+		if (Long.compareUnsigned(sum, d) < 0) {
+			sum++; // wrapped past 2^64, which is 1 modulo 2^64-1
+		} else if (sum == 0xFFFFFFFF_FFFFFFFFL) {
+			sum = 0;
+		}
+		return sum;
+	}
+	
+	/**
+	 * Multiply two values modulo 2^64-1.
+	 * @param a the first value, treated as unsigned
+	 * @param b the second value, treated as unsigned
+	 * @return the product in range 0x0000000000000000-0xFFFFFFFFFFFFFFFE
+	 */
+	static long mulD(long a, long b) {
+		// unsigned 128-bit product; 2^64 is 1 modulo 2^64-1, so the halves can be added
+		long hi = Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+		long lo = a * b;
+		return addD(hi == 0xFFFFFFFF_FFFFFFFFL ? 0 : hi, lo == 0xFFFFFFFF_FFFFFFFFL ? 0 : lo);
+	}
+	
 	/**
 	 * Return true if the state of both internal counters are zero.
 	 * @return true if both counters are zero
@@ -116,13 +302,33 @@ public class LWRand64 implements RandomGenerator.JumpableGenerator {
 		// return
 		return value32 >>> (32 - bits);
 	}
-
+	
+	/**
+	 * Compute the output of a generator at any position without constructing it. The result is the value that the
+	 * <code>index</code>-th call (counting from zero) to {@linkplain #nextLong()} would return on
+	 * <code>new LWRand64(seedh, seedl).setStream(stream)</code>. This method keeps no state, so it may be used as a
+	 * counter-based generator from any number of threads.
+	 * @param seedh the high 64 bits of the seed
+	 * @param seedl the low 64 bits of the seed
+	 * @param stream the stream ID
+	 * @param index the position in the sequence, treated as an unsigned value
+	 * @return the value at that position
+	 */
+	public static long valueAt(long seedh, long seedl, long stream, long index) {
+		long inc = (stream << 1) | 1L;
+		long d = seedh; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+		long c = seedl + (index + 1) * inc;
+		d = addD(d, index == 0xFFFFFFFF_FFFFFFFFL ? 0 : index);
+		d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+		return mix(c) ^ mix2(d);
+	}
+	
 	/**
 	 * Mix function core A.
 	 * @param c counter input
 	 * @return mixed value
 	 */
-	private long mix(long c) {
+	static long mix(long c) {
 		long v = c;
 		// Need to try this set sometime - used tightened parameters
 		// Avalanche image is *near* full grey with some contrast spots
@@ -148,7 +354,7 @@ public class LWRand64 implements RandomGenerator.JumpableGenerator {
 	 * @param d counter input
 	 * @return mixed value
 	 */
-	private long mix2(long d) {
+	static long mix2(long d) {
 		long v = d;
 		// Optimised 2 - looks better on avalanche image - used for testing
 		// PractRand has passed 2^41 on this parameter set. Testing stopped here.
@@ -183,21 +389,796 @@ public class LWRand64 implements RandomGenerator.JumpableGenerator {
 		advance();
 		return mix(c) ^ mix2(d);
 	}
-
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The value takes the top 24 bits of a 32-bit half, so two floats are produced per 64-bit value.
+	 */
+	@Override
+	public float nextFloat() {
+		return (next(32) >>> 8) * 0x1.0p-24f;
+	}
+	
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Values are produced by a 256-layer ziggurat that takes the layer, sign and uniform from one 64-bit value.
+	 */
+	@Override
+	public double nextGaussian() {
+		return Ziggurat.normal(this);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Values are produced by a 256-layer ziggurat that takes the layer and uniform from one 64-bit value.
+	 */
+	@Override
+	public double nextExponential() {
+		return Ziggurat.exponential(this);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Values are produced by Lemire's multiply-shift method from a single 32-bit half, with no division unless a draw has to
+	 * be checked for bias. Powers of two and bounds of 2^30 or more never divide.
+	 */
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		return (int) boundedInt(bound);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Values are produced as for {@linkplain #nextInt(int)}.
+	 */
+	@Override
+	public int nextInt(int origin, int bound) {
+		if (origin >= bound) {
+			throw new IllegalArgumentException("bound must be greater than origin");
+		}
+		return origin + (int) boundedInt(Integer.toUnsignedLong(bound - origin));
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Bounds below 2^32 take a single 32-bit half as for {@linkplain #nextInt(int)}; larger bounds take a 64-bit value.
+	 */
+	@Override
+	public long nextLong(long bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		return bound <= 0xFFFFFFFFL ? boundedInt(bound) : boundedLong(bound);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Values are produced as for {@linkplain #nextLong(long)}.
+	 */
+	@Override
+	public long nextLong(long origin, long bound) {
+		if (origin >= bound) {
+			throw new IllegalArgumentException("bound must be greater than origin");
+		}
+		long range = bound - origin; // unsigned, may exceed Long.MAX_VALUE
+		return origin + (Long.compareUnsigned(range, 0xFFFFFFFFL) <= 0 ? boundedInt(range) : boundedLong(range));
+	}
+	
+	/**
+	 * Return a uniform value from 0 (inclusive) to range (exclusive) using 32 random bits.
+	 * @param range the size of the range, from 1 to 2^32-1
+	 */
+	private long boundedInt(long range) {
+		if ((range & (range - 1)) == 0) {
+			return Integer.toUnsignedLong(next(32)) >>> (Long.numberOfLeadingZeros(range) - 31); // power of two, never biased
+		}
+		// large ranges check against the exact threshold at once, which is cheap for them and keeps the branch predictable
+		long limit = range >= 1L << 30 ? threshold(0x1_0000_0000L - range, range) : range;
+		long m = Integer.toUnsignedLong(next(32)) * range;
+		if ((m & 0xFFFFFFFFL) < limit) {
+			// possibly biased, reject if below 2^32 mod range
+			long threshold = threshold(0x1_0000_0000L - range, range);
+			while ((m & 0xFFFFFFFFL) < threshold) {
+				m = Integer.toUnsignedLong(next(32)) * range;
+			}
+		}
+		return m >>> 32;
+	}
+	
+	/**
+	 * Return a uniform value from 0 (inclusive) to range (exclusive) using 64 random bits.
+	 * @param range the size of the range as an unsigned value, at least 2^32
+	 */
+	private long boundedLong(long range) {
+		if ((range & (range - 1)) == 0) {
+			return nextLong() >>> (Long.numberOfLeadingZeros(range) + 1); // power of two, never biased
+		}
+		long limit = Long.compareUnsigned(range, 1L << 62) >= 0 ? threshold(-range, range) : range; // as in boundedInt
+		long u = nextLong();
+		long low = u * range;
+		if (Long.compareUnsigned(low, limit) < 0) {
+			// possibly biased, reject if below 2^64 mod range
+			long threshold = threshold(-range, range);
+			while (Long.compareUnsigned(low, threshold) < 0) {
+				u = nextLong();
+				low = u * range;
+			}
+		}
+		return unsignedMultiplyHigh(u, range);
+	}
+	
+	/**
+	 * Return the rejection threshold of the bounded methods, 2^32 or 2^64 mod range. Ranges that are powers of two or more than
+	 * a quarter of 2^32 or 2^64 need no division: the former never reject, and the latter take at most three subtractions.
+	 * Large ranges reach this on a good share of draws, so avoiding the division there matters.
+	 * @param rest 2^32 - range or 2^64 - range, as an unsigned value
+	 * @param range the size of the range as an unsigned value
+	 */
+	private static long threshold(long rest, long range) {
+		if ((range & (range - 1)) == 0) return 0;
+		if (Long.compareUnsigned(range, 1L << 62) >= 0 || Long.compareUnsigned(rest, range << 2) < 0) {
+			while (Long.compareUnsigned(rest, range) >= 0) rest -= range;
+			return rest;
+		}
+		return Long.remainderUnsigned(rest, range);
+	}
+	
+	/**
+	 * Fill an array with random longs. The values produced are identical to calling {@linkplain #nextLong()} once per element.
+	 * @param dst the array to fill
+	 */
+	public void nextLongs(long[] dst) {
+		nextLongs(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with random longs. The values produced are identical to calling {@linkplain #nextLong()} once per element.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void nextLongs(long[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		if (len == 0) return;
+		haveBits = 0; // same resync as nextLong()
+		long c = this.c;
+		long d = this.d;
+		final long stream = this.stream;
+		for (int i = off; i < off + len; i++) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			dst[i] = mix(c) ^ mix2(d);
+		}
+		this.c = c;
+		this.d = d;
+	}
+	
+	/**
+	 * Fill an array with random ints. The values produced are identical to calling {@linkplain #nextInt()} once per element.
+	 * @param dst the array to fill
+	 */
+	public void nextInts(int[] dst) {
+		nextInts(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with random ints. The values produced are identical to calling {@linkplain #nextInt()} once per element,
+	 * including use of any 32-bit half buffered by a previous call.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void nextInts(int[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		if (len == 0) return;
+		int i = off;
+		int end = off + len;
+		// drain the buffered half first
+		if (haveBits != 0) {
+			dst[i++] = (int) value;
+			haveBits = 0;
+		}
+		long c = this.c;
+		long d = this.d;
+		final long stream = this.stream;
+		// whole 64-bit values, low half first
+		for (; i + 1 < end; i += 2) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			long v = mix(c) ^ mix2(d);
+			dst[i] = (int) v;
+			dst[i + 1] = (int) (v >>> 32);
+		}
+		// odd tail, buffer the high half for the next call
+		if (i < end) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			long v = mix(c) ^ mix2(d);
+			dst[i] = (int) v;
+			value = v >>> 32;
+			haveBits = 32;
+		}
+		this.c = c;
+		this.d = d;
+	}
+	
+	/**
+	 * Fill an array with random floats between zero (inclusive) and one (exclusive). The values produced are identical to calling
+	 * {@linkplain #nextFloat()} once per element.
+	 * @param dst the array to fill
+	 */
+	public void nextFloats(float[] dst) {
+		nextFloats(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with random floats between zero (inclusive) and one (exclusive). The values produced are identical
+	 * to calling {@linkplain #nextFloat()} once per element, so each 64-bit value supplies two floats.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void nextFloats(float[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		if (len == 0) return;
+		int i = off;
+		int end = off + len;
+		// drain the buffered half first
+		if (haveBits != 0) {
+			dst[i++] = ((int) value >>> 8) * 0x1.0p-24f;
+			haveBits = 0;
+		}
+		long c = this.c;
+		long d = this.d;
+		final long stream = this.stream;
+		// whole 64-bit values, low half first
+		for (; i + 1 < end; i += 2) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			long v = mix(c) ^ mix2(d);
+			dst[i] = ((int) v >>> 8) * 0x1.0p-24f;
+			dst[i + 1] = (v >>> 40) * 0x1.0p-24f;
+		}
+		// odd tail, buffer the high half for the next call
+		if (i < end) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			long v = mix(c) ^ mix2(d);
+			dst[i] = ((int) v >>> 8) * 0x1.0p-24f;
+			value = v >>> 32;
+			haveBits = 32;
+		}
+		this.c = c;
+		this.d = d;
+	}
+	
+	/**
+	 * Fill an array with random floats between zero (exclusive) and one (exclusive) that use the full precision of the float format.
+	 * @param dst the array to fill
+	 * @see #nextDenseFloats(float[], int, int)
+	 */
+	public void nextDenseFloats(float[] dst) {
+		nextDenseFloats(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with random floats between zero (exclusive) and one (exclusive) that use the full precision of the
+	 * float format. Unlike {@linkplain #nextFloats(float[], int, int)}, which produces multiples of 2^-24, every float in the
+	 * interval can occur with probability proportional to the width it covers, so values near zero keep 24 significant bits.
+	 * Each value takes the mantissa from the low 23 bits of a 64-bit value and the exponent from the number of leading zeros in
+	 * the remaining 41 bits; further values are drawn in the rare case that all of them are zero.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void nextDenseFloats(float[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		for (int i = off; i < off + len; i++) {
+			long v = nextLong();
+			int mantissa = (int) v & 0x7FFFFF;
+			long rest = v >>> 23;
+			int exponent = 126; // biased exponent of [0.5, 1)
+			if (rest == 0) {
+				// probability 2^-41, keep counting zeros in further values
+				exponent -= 41;
+				while ((rest = nextLong()) == 0 && exponent > 0) exponent -= 64;
+				exponent -= Long.numberOfLeadingZeros(rest);
+			} else {
+				exponent -= Long.numberOfLeadingZeros(rest) - 23;
+			}
+			dst[i] = exponent > 0 ? Float.intBitsToFloat((exponent << 23) | mantissa) : Float.MIN_NORMAL;
+		}
+	}
+	
+	/**
+	 * Fill an array with random doubles between zero (inclusive) and one (exclusive). The values produced are identical to calling
+	 * {@linkplain #nextDouble()} once per element.
+	 * @param dst the array to fill
+	 */
+	public void nextDoubles(double[] dst) {
+		nextDoubles(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with random doubles between zero (inclusive) and one (exclusive). The values produced are identical to
+	 * calling {@linkplain #nextDouble()} once per element.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void nextDoubles(double[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		if (len == 0) return;
+		haveBits = 0; // same resync as nextLong()
+		long c = this.c;
+		long d = this.d;
+		final long stream = this.stream;
+		for (int i = off; i < off + len; i++) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			dst[i] = ((mix(c) ^ mix2(d)) >>> 11) * 0x1.0p-53;
+		}
+		this.c = c;
+		this.d = d;
+	}
+	
+	/**
+	 * Fill an array with values from the standard normal distribution. The values produced are identical to calling
+	 * {@linkplain #nextGaussian()} once per element.
+	 * @param dst the array to fill
+	 */
+	public void fillGaussian(double[] dst) {
+		fillGaussian(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with values from the standard normal distribution. The values produced are identical to calling
+	 * {@linkplain #nextGaussian()} once per element.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void fillGaussian(double[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		for (int i = off; i < off + len; i++) {
+			dst[i] = Ziggurat.normal(this);
+		}
+	}
+	
+	/**
+	 * Fill an array with values from the standard exponential distribution. The values produced are identical to calling
+	 * {@linkplain #nextExponential()} once per element.
+	 * @param dst the array to fill
+	 */
+	public void fillExponential(double[] dst) {
+		fillExponential(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with values from the standard exponential distribution. The values produced are identical to
+	 * calling {@linkplain #nextExponential()} once per element.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void fillExponential(double[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		for (int i = off; i < off + len; i++) {
+			dst[i] = Ziggurat.exponential(this);
+		}
+	}
+	
+	/**
+	 * Fill an array with random ints between zero (inclusive) and the given bound (exclusive).
+	 * @param dst the array to fill
+	 * @param bound the upper bound, must be positive
+	 * @see #nextBoundedInts(int[], int, int, int, int)
+	 */
+	public void nextBoundedInts(int[] dst, int bound) {
+		nextBoundedInts(dst, 0, dst.length, bound);
+	}
+	
+	/**
+	 * Fill an array with random ints between the given origin (inclusive) and bound (exclusive).
+	 * @param dst the array to fill
+	 * @param origin the lower bound
+	 * @param bound the upper bound, must be greater than origin
+	 * @see #nextBoundedInts(int[], int, int, int, int)
+	 */
+	public void nextBoundedInts(int[] dst, int origin, int bound) {
+		nextBoundedInts(dst, 0, dst.length, origin, bound);
+	}
+	
+	/**
+	 * Fill a range of an array with random ints between zero (inclusive) and the given bound (exclusive).
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 * @param bound the upper bound, must be positive
+	 * @see #nextBoundedInts(int[], int, int, int, int)
+	 */
+	public void nextBoundedInts(int[] dst, int off, int len, int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		nextBoundedInts(dst, off, len, 0, bound);
+	}
+	
+	/**
+	 * Fill a range of an array with random ints between the given origin (inclusive) and bound (exclusive). Values are produced
+	 * by Lemire's multiply-shift method, batched so that a single 64-bit value supplies as many results as the size of the range
+	 * allows: two for ranges below 2^32, four below 2^16, and so on. A batch is redrawn only in the rare case that it would be
+	 * biased, so every value is exactly uniform. As with {@linkplain #nextLong()}, a buffered 32-bit half is discarded.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 * @param origin the lower bound
+	 * @param bound the upper bound, must be greater than origin
+	 */
+	public void nextBoundedInts(int[] dst, int off, int len, int origin, int bound) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		if (origin >= bound) {
+			throw new IllegalArgumentException("bound must be greater than origin");
+		}
+		long range = Integer.toUnsignedLong(bound - origin);
+		fillBounded(dst, off, len, range, batchSize(range), origin);
+	}
+	
+	/**
+	 * Fill an array with random longs between zero (inclusive) and the given bound (exclusive).
+	 * @param dst the array to fill
+	 * @param bound the upper bound, must be positive
+	 * @see #nextBoundedLongs(long[], int, int, long, long)
+	 */
+	public void nextBoundedLongs(long[] dst, long bound) {
+		nextBoundedLongs(dst, 0, dst.length, bound);
+	}
+	
+	/**
+	 * Fill an array with random longs between the given origin (inclusive) and bound (exclusive).
+	 * @param dst the array to fill
+	 * @param origin the lower bound
+	 * @param bound the upper bound, must be greater than origin
+	 * @see #nextBoundedLongs(long[], int, int, long, long)
+	 */
+	public void nextBoundedLongs(long[] dst, long origin, long bound) {
+		nextBoundedLongs(dst, 0, dst.length, origin, bound);
+	}
+	
+	/**
+	 * Fill a range of an array with random longs between zero (inclusive) and the given bound (exclusive).
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 * @param bound the upper bound, must be positive
+	 * @see #nextBoundedLongs(long[], int, int, long, long)
+	 */
+	public void nextBoundedLongs(long[] dst, int off, int len, long bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		nextBoundedLongs(dst, off, len, 0, bound);
+	}
+	
+	/**
+	 * Fill a range of an array with random longs between the given origin (inclusive) and bound (exclusive). Values are produced
+	 * as for {@linkplain #nextBoundedInts(int[], int, int, int, int)}; ranges of 2^32 or more take one 64-bit value per result.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 * @param origin the lower bound
+	 * @param bound the upper bound, must be greater than origin
+	 */
+	public void nextBoundedLongs(long[] dst, int off, int len, long origin, long bound) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		if (origin >= bound) {
+			throw new IllegalArgumentException("bound must be greater than origin");
+		}
+		long range = bound - origin; // unsigned, may exceed Long.MAX_VALUE
+		fillBounded(dst, off, len, range, batchSize(range), origin);
+	}
+	
+	/**
+	 * Return the largest batch whose combined range (range^k) still fits in 64 bits.
+	 */
+	private static int batchSize(long range) {
+		long product = range;
+		int k = 1;
+		while (k < 64 && unsignedMultiplyHigh(product, range) == 0) {
+			product *= range;
+			k++;
+		}
+		return k;
+	}
+	
+	/**
+	 * Return range^k, the combined range of a batch, which fits in 64 bits by choice of k.
+	 */
+	private static long batchProduct(long range, int k) {
+		long product = 1;
+		for (int j = 0; j < k; j++) product *= range;
+		return product;
+	}
+	
+	private void fillBounded(long[] dst, int off, int len, long range, int k, long origin) {
+		long product = batchProduct(range, k);
+		for (int i = 0; i < len; i += k) {
+			int n = Math.min(k, len - i);
+			long low = boundedBatch(dst, off + i, n, k, nextLong(), range, origin);
+			if (Long.compareUnsigned(low, product) < 0) {
+				// possibly biased, reject if below 2^64 mod range^k
+				long threshold = threshold(-product, product);
+				while (Long.compareUnsigned(low, threshold) < 0) {
+					low = boundedBatch(dst, off + i, n, k, nextLong(), range, origin);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * As {@linkplain #fillBounded(long[], int, int, long, int, long)}, storing straight into an int array.
+	 */
+	private void fillBounded(int[] dst, int off, int len, long range, int k, int origin) {
+		long product = batchProduct(range, k);
+		for (int i = 0; i < len; i += k) {
+			int n = Math.min(k, len - i);
+			long low = boundedBatch(dst, off + i, n, k, nextLong(), range, origin);
+			if (Long.compareUnsigned(low, product) < 0) {
+				long threshold = threshold(-product, product);
+				while (Long.compareUnsigned(low, threshold) < 0) {
+					low = boundedBatch(dst, off + i, n, k, nextLong(), range, origin);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Split one 64-bit value into k values in a range by repeated multiplication, storing the first n of them. The low half
+	 * of the last product decides whether the batch must be rejected.
+	 * @return the low 64 bits left after the last multiplication
+	 */
+	private static long boundedBatch(long[] dst, int off, int n, int k, long u, long range, long origin) {
+		for (int j = 0; j < k; j++) {
+			long hi = unsignedMultiplyHigh(u, range);
+			u *= range;
+			if (j < n) dst[off + j] = origin + hi;
+		}
+		return u;
+	}
+	
+	/**
+	 * As {@linkplain #boundedBatch(long[], int, int, int, long, long, long)}, storing into an int array. The range is at
+	 * most 2^32, so each value fits in an int.
+	 */
+	private static long boundedBatch(int[] dst, int off, int n, int k, long u, long range, int origin) {
+		for (int j = 0; j < k; j++) {
+			long hi = unsignedMultiplyHigh(u, range);
+			u *= range;
+			if (j < n) dst[off + j] = origin + (int) hi;
+		}
+		return u;
+	}
+	
+	/**
+	 * Return the high 64 bits of the unsigned 128-bit product of two longs.
+	 */
+	static long unsignedMultiplyHigh(long a, long b) {
+		return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Bytes are produced exactly as the default implementation would, by writing each 64-bit value from {@linkplain #nextLong()}
+	 * in little-endian order, but a whole value is stored at once. As with {@linkplain #nextLong()}, a buffered 32-bit half is discarded.
+	 */
+	@Override
+	public void nextBytes(byte[] bytes) {
+		int len = bytes.length;
+		if (len == 0) return;
+		haveBits = 0; // same resync as nextLong()
+		long c = this.c;
+		long d = this.d;
+		final long stream = this.stream;
+		int i = 0;
+		for (; i + 8 <= len; i += 8) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			LONG_LE.set(bytes, i, mix(c) ^ mix2(d));
+		}
+		// tail uses the low bytes of one more value
+		if (i < len) {
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			for (long v = mix(c) ^ mix2(d); i < len; v >>>= 8) {
+				bytes[i++] = (byte) v;
+			}
+		}
+		this.c = c;
+		this.d = d;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The stream is equivalent to {@linkplain #ints(long) ints(Long.MAX_VALUE)}.
+	 */
+	@Override
+	public IntStream ints() {
+		return ints(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The elements are those that <code>streamSize</code> calls to {@linkplain #nextInt()} would return, and this generator
+	 * is moved past them immediately. The stream splits efficiently for parallel use.
+	 */
+	@Override
+	public IntStream ints(long streamSize) {
+		checkStreamSize(streamSize);
+		if (streamSize == 0) return IntStream.empty();
+		// virtual index of the first element: 2 is the low half of the next word, 1 is the buffered high half of the current one
+		int start = (haveBits != 0) ? 1 : 2;
+		IntsSpliterator split = new IntsSpliterator(c, d, stream, value << 32, start, streamSize);
+		// leave this generator where the last element would have left it
+		long end = start + streamSize;
+		advance((end - 1) >>> 1);
+		if ((end & 1) != 0) {
+			value = (mix(c) ^ mix2(d)) >>> 32;
+			haveBits = 32;
+		} else {
+			haveBits = 0;
+		}
+		return StreamSupport.intStream(split, false);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The stream is equivalent to {@linkplain #longs(long) longs(Long.MAX_VALUE)}.
+	 */
+	@Override
+	public LongStream longs() {
+		return longs(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The elements are those that <code>streamSize</code> calls to {@linkplain #nextLong()} would return, and this generator
+	 * is moved past them immediately. The stream splits efficiently for parallel use.
+	 */
+	@Override
+	public LongStream longs(long streamSize) {
+		checkStreamSize(streamSize);
+		if (streamSize == 0) return LongStream.empty();
+		haveBits = 0; // same resync as nextLong()
+		LongsSpliterator split = new LongsSpliterator(c, d, stream, 0, streamSize);
+		advance(streamSize);
+		return StreamSupport.longStream(split, false);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The stream is equivalent to {@linkplain #doubles(long) doubles(Long.MAX_VALUE)}.
+	 */
+	@Override
+	public DoubleStream doubles() {
+		return doubles(Long.MAX_VALUE);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The elements are those that <code>streamSize</code> calls to {@linkplain #nextDouble()} would return, and this generator
+	 * is moved past them immediately. The stream splits efficiently for parallel use.
+	 */
+	@Override
+	public DoubleStream doubles(long streamSize) {
+		return longs(streamSize).mapToDouble(v -> (v >>> 11) * 0x1.0p-53);
+	}
+	
+	private static void checkStreamSize(long streamSize) {
+		if (streamSize < 0) {
+			throw new IllegalArgumentException("size must be non-negative");
+		}
+	}
+	
 	/**
 	 * Copy this generator.
 	 */
 	@Override
 	public LWRand64 copy() {
-		LWRand64 copy = new LWRand64();
-		copy.c = this.c;
-		copy.d = this.d;
-		copy.stream = this.stream;
-		copy.value = this.value;
-		copy.haveBits = this.haveBits;
-		return copy;
+		return new LWRand64(this);
 	}
-
+	
+	/**
+	 * Set the state of this generator to that of another generator, so that both produce the same values from then on.
+	 * @param other the generator to copy
+	 * @return this generator
+	 */
+	public LWRand64 copyFrom(LWRand64 other) {
+		c = other.c;
+		d = other.d;
+		stream = other.stream;
+		value = other.value;
+		haveBits = other.haveBits;
+		splitBits = other.splitBits;
+		return this;
+	}
+	
+	/**
+	 * Write the state of this generator to an array.
+	 * @param dst the array to write to, at least {@linkplain #STATE_LENGTH} long
+	 */
+	public void saveState(long[] dst) {
+		saveState(dst, 0);
+	}
+	
+	/**
+	 * Write the state of this generator to a range of an array, so that many states can be kept in one array.
+	 * @param dst the array to write to
+	 * @param off the first index to write
+	 */
+	public void saveState(long[] dst, int off) {
+		Objects.checkFromIndexSize(off, STATE_LENGTH, dst.length);
+		dst[off] = c;
+		dst[off + 1] = d;
+		dst[off + 2] = stream;
+		dst[off + 3] = value;
+		dst[off + 4] = ((long) splitBits << 32) | haveBits;
+	}
+	
+	/**
+	 * Set the state of this generator from an array written by {@linkplain #saveState(long[])}.
+	 * @param src the array to read from
+	 * @throws IllegalArgumentException if the array does not hold a valid state
+	 */
+	public void restoreState(long[] src) {
+		restoreState(src, 0);
+	}
+	
+	/**
+	 * Set the state of this generator from a range of an array written by {@linkplain #saveState(long[], int)}.
+	 * @param src the array to read from
+	 * @param off the first index to read
+	 * @throws IllegalArgumentException if the array does not hold a valid state
+	 */
+	public void restoreState(long[] src, int off) {
+		Objects.checkFromIndexSize(off, STATE_LENGTH, src.length);
+		long nd = src[off + 1];
+		long nstream = src[off + 2];
+		int nhaveBits = (int) src[off + 4];
+		int nsplitBits = (int) (src[off + 4] >>> 32);
+		if (nd == 0xFFFFFFFF_FFFFFFFFL || (nstream & 1) == 0 || (nhaveBits != 0 && nhaveBits != 32)
+				|| nsplitBits < 0 || nsplitBits > 63) {
+			throw new IllegalArgumentException("invalid state");
+		}
+		c = src[off];
+		d = nd;
+		stream = nstream;
+		value = src[off + 3];
+		haveBits = nhaveBits;
+		splitBits = nsplitBits;
+	}
+	
 	/**
 	 * Jump the state by 2^64 states.
 	 */
@@ -214,9 +1195,311 @@ public class LWRand64 implements RandomGenerator.JumpableGenerator {
 		 * Therefore increment d once.
 		 */
 	}
-
+	
 	@Override
 	public double jumpDistance() {
 		return 0x1P+64; // 2^64
 	}
+	
+	/**
+	 * Jump the state by 2^96 states.
+	 */
+	@Override
+	public void leap() {
+		// As with jump(), c does not change, and 2^96 is 2^32 modulo 2^64-1.
+		d = addD(d, 0x00000001_00000000L);
+	}
+	
+	@Override
+	public double leapDistance() {
+		return 0x1P+96; // 2^96
+	}
+	
+	/**
+	 * Jump the state by 2^<code>logDistance</code> states.
+	 * @param logDistance the base-2 logarithm of the distance, from 0-127
+	 * @throws IllegalArgumentException if <code>logDistance</code> is out of range
+	 */
+	@Override
+	public void jumpPowerOfTwo(int logDistance) {
+		if (logDistance < 0 || logDistance > 127) {
+			throw new IllegalArgumentException("logDistance must be in range 0-127");
+		}
+		if (logDistance < 64) c += stream << logDistance;
+		d = addD(d, 1L << (logDistance & 63)); // 2^64 is 1 modulo 2^64-1
+	}
+	
+	/**
+	 * Jump the state by the given number of states. The fractional part of the distance is discarded.
+	 * @param distance the distance to jump
+	 * @throws IllegalArgumentException if <code>distance</code> is negative, not finite, or greater than the period
+	 */
+	@Override
+	public void jump(double distance) {
+		if (!(distance >= 0.0 && distance <= PERIOD)) {
+			throw new IllegalArgumentException("distance must be between 0 and the period");
+		}
+		jump(new BigDecimal(distance).toBigInteger());
+	}
+	
+	/**
+	 * Jump the state by the given number of states. Negative distances move the generator backward.
+	 * @param distance the distance to jump
+	 */
+	public void jump(BigInteger distance) {
+		c += distance.longValue() * stream; // low 64 bits are the distance modulo 2^64
+		d = addD(d, distance.mod(PERIOD_D).longValue());
+	}
+	
+	/**
+	 * Split off a new generator with a stream ID distinct from this generator and all its other children. The new generator's
+	 * counters are derived from its stream ID, so this generator's sequence is not disturbed.
+	 * @return the new generator
+	 */
+	@Override
+	public LWRand64 split() {
+		return splitFrom(null);
+	}
+	
+	/**
+	 * Split off a new generator with a stream ID distinct from this generator and all its other children. The new generator's
+	 * counters are drawn from the given source.
+	 * @param source the generator used to seed the counters
+	 * @return the new generator
+	 */
+	@Override
+	public LWRand64 split(SplittableGenerator source) {
+		return splitFrom(Objects.requireNonNull(source));
+	}
+	
+	/**
+	 * Split off a new generator.
+	 * @param source the generator used to seed the counters, or null to derive them from the stream ID
+	 * @return the new generator
+	 */
+	private LWRand64 splitFrom(SplittableGenerator source) {
+		if (splitBits == 63) {
+			// out of stream ID bits, fall back to a pseudorandom stream
+			return child(nextLong() >>> 1, 63, source);
+		}
+		int bit = splitBits++;
+		return child(getStream() ^ (1L << bit), splitBits, source);
+	}
+	
+	/**
+	 * Split off a number of new generators. Enough stream ID bits for all of them are claimed at once, so this uses up
+	 * fewer bits than calling {@linkplain #split()} repeatedly.
+	 */
+	@Override
+	public Stream<SplittableGenerator> splits(long streamSize) {
+		return splits(streamSize, this);
+	}
+	
+	@Override
+	public Stream<SplittableGenerator> splits(SplittableGenerator source) {
+		SplittableGenerator src = (source == this) ? null : Objects.requireNonNull(source);
+		return Stream.generate(() -> (SplittableGenerator) splitFrom(src)).sequential();
+	}
+	
+	/**
+	 * Split off a number of new generators. Enough stream ID bits for all of them are claimed at once, so this uses up
+	 * fewer bits than calling {@linkplain #split(SplittableGenerator)} repeatedly.
+	 */
+	@Override
+	public Stream<SplittableGenerator> splits(long streamSize, SplittableGenerator source) {
+		checkStreamSize(streamSize);
+		SplittableGenerator src = (source == this) ? null : Objects.requireNonNull(source);
+		int bits = 64 - Long.numberOfLeadingZeros(streamSize); // children 1..streamSize, this generator keeps 0
+		if (splitBits + bits > 63) {
+			return splits(src == null ? this : src).limit(streamSize);
+		}
+		final long base = getStream();
+		final int shift = splitBits;
+		splitBits += bits;
+		final int childBits = splitBits;
+		return LongStream.rangeClosed(1, streamSize)
+				.mapToObj(i -> (SplittableGenerator) child(base ^ (i << shift), childBits, src))
+				.sequential();
+	}
+	
+	/**
+	 * Create a child generator for splitting.
+	 * @param streamId the child's stream ID
+	 * @param bits the child's used stream ID bits
+	 * @param source the generator used to seed the counters, or null to derive them from the stream ID
+	 * @return the child
+	 */
+	private LWRand64 child(long streamId, int bits, SplittableGenerator source) {
+		long nc, nd;
+		if (source == null) {
+			nc = c + mix(streamId);
+			long off = mix2(streamId);
+			nd = addD(d, off == 0xFFFFFFFF_FFFFFFFFL ? 0 : off);
+		} else {
+			nc = source.nextLong();
+			nd = source.nextLong();
+		}
+		LWRand64 child = new LWRand64(nd, nc).setStream(streamId);
+		child.splitBits = bits;
+		return child;
+	}
+	
+	@Override
+	public Stream<RandomGenerator> rngs() {
+		return splits().map(x -> x);
+	}
+	
+	@Override
+	public Stream<RandomGenerator> rngs(long streamSize) {
+		return splits(streamSize).map(x -> x);
+	}
+	
+	/**
+	 * Spliterator over the 64-bit outputs of a range of counter positions.
+	 */
+	private static final class LongsSpliterator implements Spliterator.OfLong {
+		private long c; // counters of the position before index
+		private long d;
+		private final long stream;
+		private long index; // next position to emit
+		private final long fence; // position to stop at
+		
+		LongsSpliterator(long c, long d, long stream, long index, long fence) {
+			this.c = c;
+			this.d = d;
+			this.stream = stream;
+			this.index = index;
+			this.fence = fence;
+		}
+		
+		@Override
+		public LongsSpliterator trySplit() {
+			long lo = index;
+			long mid = (lo + fence) >>> 1;
+			if (mid <= lo) return null;
+			LongsSpliterator prefix = new LongsSpliterator(c, d, stream, lo, mid);
+			// skip this spliterator ahead to mid
+			c += (mid - lo) * stream;
+			d = addD(d, mid - lo);
+			index = mid;
+			return prefix;
+		}
+		
+		@Override
+		public boolean tryAdvance(LongConsumer action) {
+			Objects.requireNonNull(action);
+			if (index >= fence) return false;
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			index++;
+			action.accept(mix(c) ^ mix2(d));
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(LongConsumer action) {
+			Objects.requireNonNull(action);
+			long c = this.c;
+			long d = this.d;
+			for (long i = index; i < fence; i++) {
+				c += stream;
+				d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+				action.accept(mix(c) ^ mix2(d));
+			}
+			this.c = c;
+			this.d = d;
+			index = fence;
+		}
+		
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+		
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
+	}
+	
+	/**
+	 * Spliterator over the 32-bit halves of a range of counter positions, low half first. Elements are numbered by a
+	 * virtual index where element j is half (j &amp; 1) of the output at position (j &gt;&gt;&gt; 1). Position 0 is
+	 * the generator's current position, whose high half may already be buffered.
+	 */
+	private static final class IntsSpliterator implements Spliterator.OfInt {
+		private long c; // counters of position ((start + index - 1) >>> 1)
+		private long d;
+		private final long stream;
+		private long cur; // output at the current position, valid when the next element is a high half
+		private final int start; // virtual index of element 0
+		private long index; // next element to emit
+		private final long fence; // element to stop at
+		
+		IntsSpliterator(long c, long d, long stream, long cur, int start, long fence) {
+			this(c, d, stream, cur, start, 0, fence);
+		}
+		
+		private IntsSpliterator(long c, long d, long stream, long cur, int start, long index, long fence) {
+			this.c = c;
+			this.d = d;
+			this.stream = stream;
+			this.cur = cur;
+			this.start = start;
+			this.index = index;
+			this.fence = fence;
+		}
+		
+		@Override
+		public IntsSpliterator trySplit() {
+			long lo = index;
+			long mid = (lo + fence) >>> 1;
+			if (mid <= lo) return null;
+			IntsSpliterator prefix = new IntsSpliterator(c, d, stream, cur, start, lo, mid);
+			// skip this spliterator ahead to mid
+			long steps = ((start + mid - 1) >>> 1) - ((start + lo - 1) >>> 1);
+			c += steps * stream;
+			d = addD(d, steps);
+			if (((start + mid) & 1) != 0) cur = mix(c) ^ mix2(d); // mid starts on a high half
+			index = mid;
+			return prefix;
+		}
+		
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			Objects.requireNonNull(action);
+			if (index >= fence) return false;
+			action.accept(nextHalf());
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			Objects.requireNonNull(action);
+			while (index < fence) {
+				action.accept(nextHalf());
+			}
+		}
+		
+		private int nextHalf() {
+			long j = start + index++;
+			if ((j & 1) != 0) {
+				return (int) (cur >>> 32);
+			}
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			cur = mix(c) ^ mix2(d);
+			return (int) cur;
+		}
+		
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+		
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
+	}
 }
@@ -0,0 +1,127 @@
+package me.lwhitelaw.lwrand;
+
+import java.util.Objects;
+
+/**
+ * A fixed-size collection of independent LWRand64 generators stored as parallel arrays rather than objects. Each generator
+ * needs 24 bytes, compared with an object header, five fields and a reference for a separate LWRand64, and sweeps over all
+ * generators run over contiguous memory.
+ * <br>
+ * {@linkplain #next(int)} produces the same values as {@linkplain LWRand64#nextLong()} on the equivalent generator. There is
+ * no 32-bit half buffering.
+ * @author lwhitelaw
+ *
+ */
+public class LWRand64Bank {
+	private final long[] c; // counters (traverse all 2^64)
+	private final long[] d; // counters (traverse 2^64-1 states, 0x0000000000000000-0xFFFFFFFFFFFFFFFE)
+	private final long[] stream; // increments of c (any odd number, forms Weyl sequence)
+	
+	/**
+	 * Construct a bank of generators. Generator <code>i</code> starts in the same state as
+	 * <code>new LWRand64(seedh, seedl).setStream(i)</code> after <code>i</code> calls to {@linkplain LWRand64#leap()}, so
+	 * every generator has its own stream and a distinct starting point for core B.
+	 * @param size the number of generators
+	 * @param seedh the high 64 bits of the seed
+	 * @param seedl the low 64 bits of the seed
+	 */
+	public LWRand64Bank(int size, long seedh, long seedl) {
+		c = new long[size];
+		d = new long[size];
+		stream = new long[size];
+		long d0 = seedh; if (d0 == 0xFFFFFFFF_FFFFFFFFL) d0 = 0; // prevent d being outside of range
+		for (int i = 0; i < size; i++) {
+			c[i] = seedl;
+			d[i] = LWRand64.addD(d0, (long) i << 32); // i leaps of 2^96, each 2^32 modulo 2^64-1
+			stream[i] = ((long) i << 1) | 1L;
+		}
+	}
+	
+	/**
+	 * Get the number of generators in this bank.
+	 * @return the number of generators
+	 */
+	public int size() {
+		return c.length;
+	}
+	
+	/**
+	 * Advance one generator and produce a 64-bit value.
+	 * @param index the generator to use
+	 * @return a random 64-bit value
+	 */
+	public long next(int index) {
+		long ci = c[index] + stream[index];
+		long di = d[index] + 1; if (di == 0xFFFFFFFF_FFFFFFFFL) di = 0;
+		c[index] = ci;
+		d[index] = di;
+		return LWRand64.mix(ci) ^ LWRand64.mix2(di);
+	}
+	
+	/**
+	 * Advance every generator one step and store each one's value.
+	 * @param out the array receiving the value of generator <code>i</code> at index <code>i</code>
+	 */
+	public void nextAll(long[] out) {
+		Objects.checkFromIndexSize(0, c.length, out.length);
+		final long[] c = this.c;
+		final long[] d = this.d;
+		final long[] stream = this.stream;
+		for (int i = 0; i < c.length; i++) {
+			long ci = c[i] + stream[i];
+			long di = d[i] + 1; if (di == 0xFFFFFFFF_FFFFFFFFL) di = 0;
+			c[i] = ci;
+			d[i] = di;
+			out[i] = LWRand64.mix(ci) ^ LWRand64.mix2(di);
+		}
+	}
+	
+	/**
+	 * Advance every generator one step without producing values.
+	 */
+	public void advanceAll() {
+		final long[] c = this.c;
+		final long[] d = this.d;
+		final long[] stream = this.stream;
+		for (int i = 0; i < c.length; i++) {
+			c[i] += stream[i];
+			long di = d[i] + 1; if (di == 0xFFFFFFFF_FFFFFFFFL) di = 0;
+			d[i] = di;
+		}
+	}
+	
+	/**
+	 * Advance every generator by the given number of steps in constant time per generator.
+	 * @param n the number of steps, treated as an unsigned value
+	 */
+	public void advanceAll(long n) {
+		long dn = (n == 0xFFFFFFFF_FFFFFFFFL) ? 0 : n; // reduce n modulo the period of d
+		for (int i = 0; i < c.length; i++) {
+			c[i] += n * stream[i];
+			d[i] = LWRand64.addD(d[i], dn);
+		}
+	}
+	
+	/**
+	 * Return a standalone generator in the same state as one generator of this bank.
+	 * @param index the generator to copy
+	 * @return a new generator
+	 */
+	public LWRand64 get(int index) {
+		LWRand64 rng = new LWRand64(d[index], c[index]);
+		rng.stream = stream[index];
+		return rng;
+	}
+	
+	/**
+	 * Replace one generator of this bank with the state of a standalone generator. Any buffered 32-bit half of that generator
+	 * is not carried over.
+	 * @param index the generator to replace
+	 * @param rng the generator to copy
+	 */
+	public void set(int index, LWRand64 rng) {
+		c[index] = rng.c;
+		d[index] = rng.d;
+		stream[index] = rng.stream;
+	}
+}
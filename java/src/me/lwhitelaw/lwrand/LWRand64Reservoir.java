@@ -0,0 +1,130 @@
+package me.lwhitelaw.lwrand;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A generator that hands out the output of an LWRand64 bit by bit. Each 64-bit value is kept in a reservoir and every call
+ * takes exactly the bits it needs, lowest first, so no bits are discarded when calls of different widths are mixed:
+ * {@linkplain #nextBoolean()} uses one bit, {@linkplain #nextFloat()} 24 and {@linkplain #nextDouble()} 53. Bounded values
+ * take only as many bits as the bound needs, with rejection.
+ * <br>
+ * The output is a deterministic function of the wrapped generator's sequence and the order of calls, but differs from the
+ * values LWRand64 itself returns for the same calls.
+ * @author lwhitelaw
+ *
+ */
+public class LWRand64Reservoir implements RandomGenerator {
+	private final LWRand64 source;
+	private long bits; // unused bits, next bit lowest
+	private int count; // number of unused bits
+	
+	/**
+	 * Construct a reservoir drawing from the given generator. The generator is used directly, not copied.
+	 * @param source the generator to draw 64-bit values from
+	 */
+	public LWRand64Reservoir(LWRand64 source) {
+		this.source = source;
+	}
+	
+	/**
+	 * Return the requested number of random bits, taken from the reservoir and refilled from the wrapped generator when needed.
+	 * @param n the number of bits from 0-64
+	 * @return a random n-bit value in the low bits of the result
+	 */
+	public long nextBits(int n) {
+		if (n == 0) return 0;
+		long mask = -1L >>> (64 - n);
+		if (n <= count) {
+			long r = bits & mask;
+			bits = n == 64 ? 0 : bits >>> n;
+			count -= n;
+			return r;
+		}
+		// take what is left, then the rest from a new value
+		long fresh = source.nextLong();
+		long r = (bits | (fresh << count)) & mask;
+		int used = n - count;
+		bits = used == 64 ? 0 : fresh >>> used;
+		count = 64 - used;
+		return r;
+	}
+	
+	/**
+	 * Discard any bits left in the reservoir, so the next call starts on a fresh value from the wrapped generator.
+	 */
+	public void discard() {
+		bits = 0;
+		count = 0;
+	}
+	
+	@Override
+	public boolean nextBoolean() {
+		return nextBits(1) != 0;
+	}
+	
+	@Override
+	public int nextInt() {
+		return (int) nextBits(32);
+	}
+	
+	@Override
+	public long nextLong() {
+		return nextBits(64);
+	}
+	
+	@Override
+	public float nextFloat() {
+		return nextBits(24) * 0x1.0p-24f;
+	}
+	
+	@Override
+	public double nextDouble() {
+		return nextBits(53) * 0x1.0p-53;
+	}
+	
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		return (int) bounded(bound);
+	}
+	
+	@Override
+	public int nextInt(int origin, int bound) {
+		if (origin >= bound) {
+			throw new IllegalArgumentException("bound must be greater than origin");
+		}
+		return origin + (int) bounded(Integer.toUnsignedLong(bound - origin));
+	}
+	
+	@Override
+	public long nextLong(long bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		return bounded(bound);
+	}
+	
+	@Override
+	public long nextLong(long origin, long bound) {
+		if (origin >= bound) {
+			throw new IllegalArgumentException("bound must be greater than origin");
+		}
+		return origin + bounded(bound - origin);
+	}
+	
+	/**
+	 * Return a uniform value from 0 (inclusive) to range (exclusive), drawing the fewest bits that can hold range-1 and
+	 * rejecting values outside the range. Fewer than two draws are needed on average.
+	 * @param range the size of the range as an unsigned value, at least 1
+	 */
+	private long bounded(long range) {
+		int n = 64 - Long.numberOfLeadingZeros(range - 1);
+		long v;
+		do {
+			v = nextBits(n);
+		} while (Long.compareUnsigned(v, range) >= 0);
+		return v;
+	}
+}
@@ -0,0 +1,125 @@
+package me.lwhitelaw.lwrand;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * A thread-safe, lock-free generator producing the LWRand64 sequence. Since a single step index determines both counters,
+ * each call claims a position with one atomic increment and computes the output at that position locally using
+ * {@linkplain LWRand64#valueAt(long, long, long, long)}. Every position is handed out exactly once, though threads
+ * see them in no particular order.
+ * <br>
+ * Threads drawing many values can amortize the atomic operation with a {@linkplain #cursor(int) cursor}, which claims a
+ * block of consecutive positions at a time.
+ * <br>
+ * The shared position is a 64-bit counter, so the sequence repeats after 2^64 values rather than the full LWRand64 period.
+ * It sits in the middle of a padded array, so it has a cache line to itself and generators allocated next to each other,
+ * such as the stripes of an {@linkplain LWRand64Striped}, do not slow each other down through false sharing.
+ * @author lwhitelaw
+ *
+ */
+public class LWRand64Shared implements RandomGenerator {
+	private static final int PAD = 7; // unused longs on each side of the position, 56 bytes
+	
+	private final long seedh;
+	private final long seedl;
+	private final long streamId;
+	private final AtomicLongArray position = new AtomicLongArray(2 * PAD + 1); // next unclaimed index at PAD
+	
+	/**
+	 * Construct a shared generator with a seed derived from the system clock.
+	 */
+	public LWRand64Shared() {
+		this(System.nanoTime(), System.currentTimeMillis(), 0);
+	}
+	
+	/**
+	 * Construct a shared generator producing the sequence of <code>new LWRand64(seedh, seedl).setStream(streamId)</code>.
+	 * @param seedh the high 64 bits of the seed
+	 * @param seedl the low 64 bits of the seed
+	 * @param streamId the stream ID
+	 */
+	public LWRand64Shared(long seedh, long seedl, long streamId) {
+		this.seedh = seedh;
+		this.seedl = seedl;
+		this.streamId = streamId;
+	}
+	
+	@Override
+	public long nextLong() {
+		return LWRand64.valueAt(seedh, seedl, streamId, position.getAndIncrement(PAD));
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The value is the upper 32 bits of one position's output.
+	 */
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+	
+	/**
+	 * Create a cursor that claims blocks of positions from this generator. The cursor is not thread-safe and is intended to be
+	 * owned by a single thread. Positions claimed by a cursor but never used are skipped, not handed out elsewhere.
+	 * @param blockSize the number of positions to claim at a time
+	 * @return a new cursor
+	 * @throws IllegalArgumentException if <code>blockSize</code> is not positive
+	 */
+	public Cursor cursor(int blockSize) {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("blockSize must be positive");
+		}
+		return new Cursor(this, blockSize);
+	}
+	
+	/**
+	 * A single-threaded view of a shared generator that claims consecutive positions in blocks and steps through them with
+	 * ordinary counter arithmetic.
+	 */
+	public static final class Cursor implements RandomGenerator {
+		private final LWRand64Shared shared;
+		private final int blockSize;
+		private long c; // counters of the last position used
+		private long d;
+		private final long stream;
+		private int remaining; // positions left in the current block
+		
+		private Cursor(LWRand64Shared shared, int blockSize) {
+			this.shared = shared;
+			this.blockSize = blockSize;
+			this.stream = (shared.streamId << 1) | 1L;
+		}
+		
+		/**
+		 * Claim the next block and position the counters just before it.
+		 */
+		private void claim() {
+			long index = shared.position.getAndAdd(PAD, blockSize);
+			long d0 = shared.seedh; if (d0 == 0xFFFFFFFF_FFFFFFFFL) d0 = 0;
+			c = shared.seedl + index * stream;
+			d = LWRand64.addD(d0, index == 0xFFFFFFFF_FFFFFFFFL ? 0 : index);
+			remaining = blockSize;
+		}
+		
+		@Override
+		public long nextLong() {
+			if (remaining == 0) claim();
+			remaining--;
+			c += stream;
+			d++; if (d == 0xFFFFFFFF_FFFFFFFFL) d = 0;
+			return LWRand64.mix(c) ^ LWRand64.mix2(d);
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 * 
+		 * The value is the upper 32 bits of one position's output.
+		 */
+		@Override
+		public int nextInt() {
+			return (int) (nextLong() >>> 32);
+		}
+	}
+}
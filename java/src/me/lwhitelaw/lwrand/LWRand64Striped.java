@@ -0,0 +1,70 @@
+package me.lwhitelaw.lwrand;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A thread-safe generator that spreads threads over a fixed set of lock-free stripes. Unlike {@linkplain LWRand64#threadLocal()},
+ * a thread touching this generator causes no allocation and no thread-local map entry, which suits large numbers of short-lived
+ * or virtual threads.
+ * <br>
+ * Each stripe is an {@linkplain LWRand64Shared}: an atomic position, padded to a cache line of its own, selects the output,
+ * which is computed locally. Stripe <code>i</code> uses stream <code>i</code> and starts <code>i</code> leaps along core B,
+ * exactly as generator <code>i</code> of an {@linkplain LWRand64Bank} with the same seed, so stripes never share a stream. A
+ * thread picks its stripe from its thread ID.
+ * <br>
+ * Each stripe's position is a 64-bit counter, so a stripe repeats after 2^64 values.
+ * @author lwhitelaw
+ *
+ */
+public class LWRand64Striped implements RandomGenerator {
+	private static final LWRand64Striped INSTANCE = new LWRand64Striped(System.nanoTime(), System.currentTimeMillis(),
+			Runtime.getRuntime().availableProcessors() * 4);
+	
+	private final LWRand64Shared[] stripes;
+	private final int mask;
+	
+	/**
+	 * Construct a striped generator.
+	 * @param seedh the high 64 bits of the seed
+	 * @param seedl the low 64 bits of the seed
+	 * @param stripes the minimum number of stripes, rounded up to a power of two
+	 * @throws IllegalArgumentException if <code>stripes</code> is not in range 1-2^20
+	 */
+	public LWRand64Striped(long seedh, long seedl, int stripes) {
+		if (stripes < 1 || stripes > (1 << 20)) {
+			throw new IllegalArgumentException("stripes must be in range 1-2^20");
+		}
+		int n = Integer.highestOneBit(stripes - 1) << 1;
+		if (stripes == 1) n = 1;
+		this.stripes = new LWRand64Shared[n];
+		this.mask = n - 1;
+		long d0 = seedh; if (d0 == 0xFFFFFFFF_FFFFFFFFL) d0 = 0; // prevent d being outside of range
+		for (int i = 0; i < n; i++) {
+			// i leaps of 2^96, each 2^32 modulo 2^64-1
+			this.stripes[i] = new LWRand64Shared(LWRand64.addD(d0, (long) i << 32), seedl, i);
+		}
+	}
+	
+	/**
+	 * Return the JVM-wide striped generator. It is seeded from the system clock and has four stripes per available processor.
+	 * @return the shared striped generator
+	 */
+	public static LWRand64Striped instance() {
+		return INSTANCE;
+	}
+	
+	@Override
+	public long nextLong() {
+		return stripes[(int) Thread.currentThread().getId() & mask].nextLong();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The value is the upper 32 bits of one position's output.
+	 */
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+}
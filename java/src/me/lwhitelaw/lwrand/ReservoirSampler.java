@@ -0,0 +1,263 @@
+package me.lwhitelaw.lwrand;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+/**
+ * A reservoir sampler that keeps a uniform random sample of k items from a stream of unknown length, using Li's
+ * Algorithm L. Once the reservoir is full, the sampler computes how many items to skip before the next one enters, so a
+ * stream of N items needs only O(k(1 + log(N/k))) random values instead of one per item. The bulk offer methods jump
+ * straight over skipped items.
+ * <br>
+ * Samplers from parallel shards with the same capacity can be {@linkplain OfLong#merge(OfLong) merged}; the result is
+ * distributed exactly as a sample of the concatenated streams.
+ * <br>
+ * {@linkplain OfLong} and {@linkplain OfInt} hold primitive items. Samplers are not thread-safe.
+ * @author lwhitelaw
+ *
+ */
+public abstract class ReservoirSampler {
+	final int capacity;
+	final RandomGenerator rng;
+	final long[] items;
+	long count; // items offered so far
+	long next; // index of the next item to enter the full reservoir
+	double w; // Algorithm L's W, the largest key in the sample
+	
+	private ReservoirSampler(int capacity, RandomGenerator rng) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.capacity = capacity;
+		this.rng = Objects.requireNonNull(rng);
+		items = new long[capacity];
+	}
+	
+	/**
+	 * Return the maximum number of items this sampler keeps.
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Return the number of items offered to this sampler, including items from merged samplers.
+	 * @return the number of items offered
+	 */
+	public long count() {
+		return count;
+	}
+	
+	/**
+	 * Return the number of items in the sample, which is the smaller of the capacity and the number of items offered.
+	 * @return the sample size
+	 */
+	public int size() {
+		return (int) Math.min(count, capacity);
+	}
+	
+	/**
+	 * Offer one item.
+	 */
+	final void add(long item) {
+		if (count < capacity) {
+			items[(int) count] = item;
+			count++;
+			if (count == capacity) {
+				w = StrictMath.exp(StrictMath.log(openUniform(rng)) / capacity);
+				schedule();
+			}
+			return;
+		}
+		if (count == next) {
+			items[rng.nextInt(capacity)] = item;
+			count++;
+			w *= StrictMath.exp(StrictMath.log(openUniform(rng)) / capacity);
+			schedule();
+			return;
+		}
+		count++;
+	}
+	
+	/**
+	 * Pass over items of a batch that will not be taken. Only called once the reservoir is full.
+	 * @param n the number of items left in the batch
+	 * @return the number of items passed over, n if none of them is taken
+	 */
+	final int gap(int n) {
+		long g = next - count;
+		if (g >= n) {
+			count += n;
+			return n;
+		}
+		count += g;
+		return (int) g;
+	}
+	
+	/**
+	 * Set the index of the next item to take from a geometric skip with success probability W.
+	 */
+	private void schedule() {
+		double skip = Math.floor(StrictMath.log(openUniform(rng)) / StrictMath.log1p(-w));
+		next = skip < Long.MAX_VALUE - count ? count + (long) skip : Long.MAX_VALUE;
+	}
+	
+	/**
+	 * Replace the sample with a uniform sample of the union of this sampler's and another sampler's streams.
+	 */
+	final void mergeFrom(ReservoirSampler other) {
+		if (other.capacity != capacity) {
+			throw new IllegalArgumentException("samplers must have the same capacity");
+		}
+		long a = count;
+		long b = other.count;
+		int sizeA = size();
+		int sizeB = other.size();
+		long[] poolA = Arrays.copyOf(items, sizeA);
+		long[] poolB = Arrays.copyOf(other.items, sizeB);
+		int total = (int) Math.min(a + b, capacity);
+		// draw without replacement from the union, choosing each shard in proportion to its unchosen items
+		for (int t = 0; t < total; t++) {
+			if (rng.nextLong(a + b) < a) {
+				int j = rng.nextInt(sizeA);
+				items[t] = poolA[j];
+				poolA[j] = poolA[--sizeA];
+				a--;
+			} else {
+				int j = rng.nextInt(sizeB);
+				items[t] = poolB[j];
+				poolB[j] = poolB[--sizeB];
+				b--;
+			}
+		}
+		count += other.count;
+		if (count >= capacity) {
+			// W after n items is the k-th smallest of n uniforms
+			w = Distributions.beta(capacity, count + 1 - capacity).sample(rng);
+			schedule();
+		}
+	}
+	
+	/**
+	 * Return a uniform value strictly between 0 and 1, so its logarithm is finite and non-zero.
+	 */
+	static double openUniform(RandomGenerator rng) {
+		return ((rng.nextLong() >>> 11) + 0.5) * 0x1.0p-53;
+	}
+	
+	/**
+	 * A reservoir sampler of long items.
+	 */
+	public static final class OfLong extends ReservoirSampler {
+		/**
+		 * Construct a sampler.
+		 * @param capacity the number of items to keep
+		 * @param rng the generator to draw from
+		 */
+		public OfLong(int capacity, RandomGenerator rng) {
+			super(capacity, rng);
+		}
+		
+		/**
+		 * Offer one item.
+		 * @param item the item
+		 */
+		public void offer(long item) {
+			add(item);
+		}
+		
+		/**
+		 * Offer a range of an array of items, in order.
+		 * @param src the items
+		 * @param off the first index to offer
+		 * @param len the number of items to offer
+		 */
+		public void offer(long[] src, int off, int len) {
+			Objects.checkFromIndexSize(off, len, src.length);
+			int i = off;
+			int end = off + len;
+			while (i < end && count < capacity) add(src[i++]);
+			while (i < end) {
+				i += gap(end - i);
+				if (i < end) add(src[i++]);
+			}
+		}
+		
+		/**
+		 * Merge another sampler into this one. This sampler then holds a sample of both streams as if they had been offered
+		 * to it one after the other; the other sampler is unchanged.
+		 * @param other the sampler to merge, with the same capacity
+		 */
+		public void merge(OfLong other) {
+			mergeFrom(other);
+		}
+		
+		/**
+		 * Return the current sample, in no particular order.
+		 * @return a new array of {@linkplain #size()} items
+		 */
+		public long[] sample() {
+			return Arrays.copyOf(items, size());
+		}
+	}
+	
+	/**
+	 * A reservoir sampler of int items.
+	 */
+	public static final class OfInt extends ReservoirSampler {
+		/**
+		 * Construct a sampler.
+		 * @param capacity the number of items to keep
+		 * @param rng the generator to draw from
+		 */
+		public OfInt(int capacity, RandomGenerator rng) {
+			super(capacity, rng);
+		}
+		
+		/**
+		 * Offer one item.
+		 * @param item the item
+		 */
+		public void offer(int item) {
+			add(item);
+		}
+		
+		/**
+		 * Offer a range of an array of items, in order.
+		 * @param src the items
+		 * @param off the first index to offer
+		 * @param len the number of items to offer
+		 */
+		public void offer(int[] src, int off, int len) {
+			Objects.checkFromIndexSize(off, len, src.length);
+			int i = off;
+			int end = off + len;
+			while (i < end && count < capacity) add(src[i++]);
+			while (i < end) {
+				i += gap(end - i);
+				if (i < end) add(src[i++]);
+			}
+		}
+		
+		/**
+		 * Merge another sampler into this one. This sampler then holds a sample of both streams as if they had been offered
+		 * to it one after the other; the other sampler is unchanged.
+		 * @param other the sampler to merge, with the same capacity
+		 */
+		public void merge(OfInt other) {
+			mergeFrom(other);
+		}
+		
+		/**
+		 * Return the current sample, in no particular order.
+		 * @return a new array of {@linkplain #size()} items
+		 */
+		public int[] sample() {
+			int[] out = new int[size()];
+			for (int i = 0; i < out.length; i++) out[i] = (int) items[i];
+			return out;
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package me.lwhitelaw.lwrand;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.random.RandomGenerator;
+
+/**
+ * An iterator over a uniform random sample of k distinct indices from 0 to n-1, produced in increasing order using Vitter's
+ * Method D. Rather than considering each index in turn, the sampler draws how many indices to skip before the next selected
+ * one, so the whole sample takes O(k) random values and O(1) memory however large n is. Once fewer than 13 indices remain
+ * per remaining selection, the cheaper Method A takes over, as Vitter recommends.
+ * <br>
+ * This suits selecting rows from a large file or table in a single forward pass. Samplers are not thread-safe.
+ * @author lwhitelaw
+ *
+ */
+public class SortedSampler implements PrimitiveIterator.OfLong {
+	private static final long ALPHA_INVERSE = 13; // Method D is used while n > 13k
+	
+	private final RandomGenerator rng;
+	private long populationLeft; // indices not yet passed over
+	private long sampleLeft; // selections still to make
+	private long last = -1; // last selected index
+	private boolean methodD;
+	private double vprime; // Method D's uniform raised to 1/sampleLeft, carried between selections
+	
+	/**
+	 * Construct a sampler.
+	 * @param n the size of the population, from 0 to 2^53
+	 * @param k the number of indices to select, from 0 to n
+	 * @param rng the generator to draw from
+	 */
+	public SortedSampler(long n, long k, RandomGenerator rng) {
+		if (n < 0 || n > 1L << 53) {
+			throw new IllegalArgumentException("n must be in range 0-2^53");
+		}
+		if (k < 0 || k > n) {
+			throw new IllegalArgumentException("k must be in range 0-n");
+		}
+		this.rng = Objects.requireNonNull(rng);
+		populationLeft = n;
+		sampleLeft = k;
+		methodD = k > 0 && ALPHA_INVERSE * k < n;
+		if (methodD) vprime = StrictMath.exp(StrictMath.log(ReservoirSampler.openUniform(rng)) / k);
+	}
+	
+	/**
+	 * Return the number of indices still to be produced.
+	 * @return the number of remaining indices
+	 */
+	public long remaining() {
+		return sampleLeft;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return sampleLeft > 0;
+	}
+	
+	@Override
+	public long nextLong() {
+		if (sampleLeft == 0) {
+			throw new NoSuchElementException();
+		}
+		long skip;
+		if (sampleLeft == 1) {
+			// the last index is uniform over what is left; Method D's carried value is already a plain uniform
+			double u = methodD ? vprime : rng.nextDouble();
+			skip = (long) (populationLeft * u);
+		} else if (methodD && ALPHA_INVERSE * sampleLeft < populationLeft) {
+			skip = skipD();
+		} else {
+			methodD = false;
+			skip = skipA();
+		}
+		last += skip + 1;
+		populationLeft -= skip + 1;
+		sampleLeft--;
+		return last;
+	}
+	
+	/**
+	 * Fill an array with the next indices.
+	 * @param dst the array to fill
+	 * @throws NoSuchElementException if fewer indices remain than the length of the array
+	 */
+	public void fill(long[] dst) {
+		fill(dst, 0, dst.length);
+	}
+	
+	/**
+	 * Fill a range of an array with the next indices.
+	 * @param dst the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 * @throws NoSuchElementException if fewer indices remain than len
+	 */
+	public void fill(long[] dst, int off, int len) {
+		Objects.checkFromIndexSize(off, len, dst.length);
+		if (len > sampleLeft) {
+			throw new NoSuchElementException();
+		}
+		for (int i = off; i < off + len; i++) {
+			dst[i] = nextLong();
+		}
+	}
+	
+	/**
+	 * Method A: find the skip by sequential search of its distribution. Expected time is proportional to the skip.
+	 */
+	private long skipA() {
+		double v = rng.nextDouble();
+		double top = populationLeft - sampleLeft;
+		double remaining = populationLeft;
+		double quotient = top / remaining; // probability that the skip exceeds the current value
+		long s = 0;
+		while (quotient > v) {
+			s++;
+			top--;
+			remaining--;
+			quotient = quotient * top / remaining;
+		}
+		return s;
+	}
+	
+	/**
+	 * Method D: find the skip by rejection from a continuous approximation, with a squeeze so that the exact test is rarely needed.
+	 */
+	private long skipD() {
+		double n = sampleLeft;
+		double bigN = populationLeft;
+		long qu1 = populationLeft - sampleLeft + 1;
+		double qu1Real = qu1;
+		double nMinus1Inv = 1 / (n - 1);
+		for (;;) {
+			// D2: draw a candidate skip from the approximating distribution
+			double x;
+			long s;
+			for (;;) {
+				x = bigN * (1 - vprime);
+				s = (long) x;
+				if (s < qu1) break;
+				vprime = StrictMath.exp(StrictMath.log(ReservoirSampler.openUniform(rng)) / n);
+			}
+			double u = ReservoirSampler.openUniform(rng);
+			// D3: squeeze test; on success vprime becomes the next selection's value for free
+			double y1 = StrictMath.exp(StrictMath.log(u * bigN / qu1Real) * nMinus1Inv);
+			vprime = y1 * (1 - x / bigN) * (qu1Real / (qu1Real - s));
+			if (vprime <= 1) return s;
+			// D4: exact test
+			double y2 = 1;
+			double top = bigN - 1;
+			double bottom;
+			long limit;
+			if (sampleLeft - 1 > s) {
+				bottom = bigN - n;
+				limit = populationLeft - s;
+			} else {
+				bottom = bigN - s - 1;
+				limit = qu1;
+			}
+			for (long t = populationLeft - 1; t >= limit; t--) {
+				y2 = y2 * top / bottom;
+				top--;
+				bottom--;
+			}
+			if (bigN / (bigN - x) >= y1 * StrictMath.exp(StrictMath.log(y2) * nMinus1Inv)) {
+				vprime = StrictMath.exp(StrictMath.log(ReservoirSampler.openUniform(rng)) * nMinus1Inv);
+				return s;
+			}
+			vprime = StrictMath.exp(StrictMath.log(ReservoirSampler.openUniform(rng)) / n);
+		}
+	}
+}
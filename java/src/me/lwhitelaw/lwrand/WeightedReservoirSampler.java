@@ -0,0 +1,260 @@
+package me.lwhitelaw.lwrand;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+/**
+ * A reservoir sampler that keeps a weighted random sample of k items from a stream of unknown length, using Efraimidis and
+ * Spirakis' A-ExpJ. Each item conceptually gets the key u^(1/weight) and the sample holds the k largest keys; instead of
+ * drawing a key for every item, the sampler draws how much weight to skip before the next item enters, so a stream of N
+ * items needs only O(k(1 + log(N/k))) random values. Keys are kept as logarithms, so very small weights and long streams do
+ * not underflow.
+ * <br>
+ * Samplers from parallel shards with the same capacity can be {@linkplain OfLong#merge(OfLong) merged} by keeping the
+ * largest keys of both.
+ * <br>
+ * {@linkplain OfLong} and {@linkplain OfInt} hold primitive items. Samplers are not thread-safe.
+ * @author lwhitelaw
+ *
+ */
+public abstract class WeightedReservoirSampler {
+	final int capacity;
+	final RandomGenerator rng;
+	final double[] keys; // min-heap of log keys
+	final long[] items; // item of each key
+	int size;
+	long count; // items offered so far
+	double skip; // weight still to pass before the next item enters the full reservoir
+	
+	private WeightedReservoirSampler(int capacity, RandomGenerator rng) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.capacity = capacity;
+		this.rng = Objects.requireNonNull(rng);
+		keys = new double[capacity];
+		items = new long[capacity];
+	}
+	
+	/**
+	 * Return the maximum number of items this sampler keeps.
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Return the number of items offered to this sampler, including items from merged samplers.
+	 * @return the number of items offered
+	 */
+	public long count() {
+		return count;
+	}
+	
+	/**
+	 * Return the number of items in the sample. This is the smaller of the capacity and the number of items offered with a
+	 * positive weight.
+	 * @return the sample size
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Offer one item.
+	 */
+	final void add(long item, double weight) {
+		if (!(weight >= 0 && weight < Double.POSITIVE_INFINITY)) {
+			throw new IllegalArgumentException("weight must be finite and non-negative");
+		}
+		count++;
+		if (weight == 0) return; // never selected
+		if (size < capacity) {
+			push(StrictMath.log(ReservoirSampler.openUniform(rng)) / weight, item);
+			if (size == capacity) schedule();
+			return;
+		}
+		skip -= weight;
+		if (skip > 0) return;
+		// this item enters with a key conditioned to beat the smallest one
+		double t = StrictMath.exp(weight * keys[0]);
+		double r = t + (1 - t) * ReservoirSampler.openUniform(rng);
+		keys[0] = StrictMath.log(r) / weight;
+		items[0] = item;
+		siftDown(0);
+		schedule();
+	}
+	
+	/**
+	 * Draw the weight to pass before the next item enters, from the smallest key in the full reservoir.
+	 */
+	private void schedule() {
+		skip = StrictMath.log(ReservoirSampler.openUniform(rng)) / keys[0];
+	}
+	
+	/**
+	 * Keep the largest keys of this sampler and another sampler.
+	 */
+	final void mergeFrom(WeightedReservoirSampler other) {
+		if (other.capacity != capacity) {
+			throw new IllegalArgumentException("samplers must have the same capacity");
+		}
+		for (int i = 0; i < other.size; i++) {
+			double key = other.keys[i];
+			if (size < capacity) {
+				push(key, other.items[i]);
+			} else if (key > keys[0]) {
+				keys[0] = key;
+				items[0] = other.items[i];
+				siftDown(0);
+			}
+		}
+		count += other.count;
+		if (size == capacity) schedule(); // skips are memoryless, so a fresh one is exact
+	}
+	
+	private void push(double key, long item) {
+		int i = size++;
+		keys[i] = key;
+		items[i] = item;
+		// sift up
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (keys[parent] <= keys[i]) break;
+			swap(i, parent);
+			i = parent;
+		}
+	}
+	
+	private void siftDown(int i) {
+		for (;;) {
+			int smallest = i;
+			int left = 2 * i + 1;
+			int right = left + 1;
+			if (left < size && keys[left] < keys[smallest]) smallest = left;
+			if (right < size && keys[right] < keys[smallest]) smallest = right;
+			if (smallest == i) return;
+			swap(i, smallest);
+			i = smallest;
+		}
+	}
+	
+	private void swap(int i, int j) {
+		double key = keys[i];
+		keys[i] = keys[j];
+		keys[j] = key;
+		long item = items[i];
+		items[i] = items[j];
+		items[j] = item;
+	}
+	
+	/**
+	 * A weighted reservoir sampler of long items.
+	 */
+	public static final class OfLong extends WeightedReservoirSampler {
+		/**
+		 * Construct a sampler.
+		 * @param capacity the number of items to keep
+		 * @param rng the generator to draw from
+		 */
+		public OfLong(int capacity, RandomGenerator rng) {
+			super(capacity, rng);
+		}
+		
+		/**
+		 * Offer one item.
+		 * @param item the item
+		 * @param weight the weight of the item, finite and non-negative; items of weight zero are never selected
+		 */
+		public void offer(long item, double weight) {
+			add(item, weight);
+		}
+		
+		/**
+		 * Offer a range of arrays of items and their weights, in order.
+		 * @param src the items
+		 * @param weights the weight of each item
+		 * @param off the first index to offer
+		 * @param len the number of items to offer
+		 */
+		public void offer(long[] src, double[] weights, int off, int len) {
+			Objects.checkFromIndexSize(off, len, src.length);
+			Objects.checkFromIndexSize(off, len, weights.length);
+			for (int i = off; i < off + len; i++) add(src[i], weights[i]);
+		}
+		
+		/**
+		 * Merge another sampler into this one. This sampler then holds a sample of both streams as if they had been offered
+		 * to it one after the other; the other sampler is unchanged.
+		 * @param other the sampler to merge, with the same capacity
+		 */
+		public void merge(OfLong other) {
+			mergeFrom(other);
+		}
+		
+		/**
+		 * Return the current sample, in no particular order.
+		 * @return a new array of {@linkplain #size()} items
+		 */
+		public long[] sample() {
+			return Arrays.copyOf(items, size);
+		}
+	}
+	
+	/**
+	 * A weighted reservoir sampler of int items.
+	 */
+	public static final class OfInt extends WeightedReservoirSampler {
+		/**
+		 * Construct a sampler.
+		 * @param capacity the number of items to keep
+		 * @param rng the generator to draw from
+		 */
+		public OfInt(int capacity, RandomGenerator rng) {
+			super(capacity, rng);
+		}
+		
+		/**
+		 * Offer one item.
+		 * @param item the item
+		 * @param weight the weight of the item, finite and non-negative; items of weight zero are never selected
+		 */
+		public void offer(int item, double weight) {
+			add(item, weight);
+		}
+		
+		/**
+		 * Offer a range of arrays of items and their weights, in order.
+		 * @param src the items
+		 * @param weights the weight of each item
+		 * @param off the first index to offer
+		 * @param len the number of items to offer
+		 */
+		public void offer(int[] src, double[] weights, int off, int len) {
+			Objects.checkFromIndexSize(off, len, src.length);
+			Objects.checkFromIndexSize(off, len, weights.length);
+			for (int i = off; i < off + len; i++) add(src[i], weights[i]);
+		}
+		
+		/**
+		 * Merge another sampler into this one. This sampler then holds a sample of both streams as if they had been offered
+		 * to it one after the other; the other sampler is unchanged.
+		 * @param other the sampler to merge, with the same capacity
+		 */
+		public void merge(OfInt other) {
+			mergeFrom(other);
+		}
+		
+		/**
+		 * Return the current sample, in no particular order.
+		 * @return a new array of {@linkplain #size()} items
+		 */
+		public int[] sample() {
+			int[] out = new int[size];
+			for (int i = 0; i < out.length; i++) out[i] = (int) items[i];
+			return out;
+		}
+	}
+}
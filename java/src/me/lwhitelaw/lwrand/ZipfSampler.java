@@ -0,0 +1,149 @@
+package me.lwhitelaw.lwrand;
+
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+/**
+ * A sampler for the Zipf distribution over ranks 1 to n, where rank k is drawn with probability proportional to
+ * 1/k^exponent. Values are produced by Hormann and Derflinger's rejection-inversion method, which needs O(1) expected time
+ * and no tables at any n, so a sampler over 2^62 keys costs no more than one over ten. Samplers are immutable and may be
+ * shared between threads.
+ * <br>
+ * Popular ranks are small numbers, which puts all the hot keys of a load test next to each other. A scrambling sampler
+ * instead returns the rank passed through the first LWRand64 mix function, a bijection that spreads the keys over the
+ * whole 64-bit range while keeping them distinct.
+ * <br>
+ * Unlike {@linkplain Distributions}, this class uses {@linkplain Math} rather than {@linkplain StrictMath} for speed, so in
+ * rare cases the same generator sequence may give a different rank on a different JVM.
+ * @author lwhitelaw
+ *
+ */
+public class ZipfSampler {
+	private final long n;
+	private final double exponent;
+	private final boolean scramble;
+	private final double hIntegralX1;
+	private final double hIntegralN;
+	private final double s;
+	
+	/**
+	 * Construct a sampler returning ranks from 1 to n.
+	 * @param n the number of ranks, at least 1 and at most 2^62
+	 * @param exponent the exponent of the distribution, must be positive
+	 */
+	public ZipfSampler(long n, double exponent) {
+		this(n, exponent, false);
+	}
+	
+	/**
+	 * Construct a sampler returning either ranks from 1 to n or their scrambled keys.
+	 * @param n the number of ranks, at least 1 and at most 2^62
+	 * @param exponent the exponent of the distribution, must be positive
+	 * @param scramble whether to return the mixed key of each rank rather than the rank
+	 */
+	public ZipfSampler(long n, double exponent, boolean scramble) {
+		if (n < 1 || n > 1L << 62) {
+			throw new IllegalArgumentException("n must be in range 1-2^62");
+		}
+		if (!(exponent > 0 && exponent < Double.POSITIVE_INFINITY)) {
+			throw new IllegalArgumentException("exponent must be positive");
+		}
+		this.n = n;
+		this.exponent = exponent;
+		this.scramble = scramble;
+		hIntegralX1 = hIntegral(1.5) - 1;
+		hIntegralN = hIntegral(n + 0.5);
+		s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+	}
+	
+	/**
+	 * Draw a rank, or its key if this sampler scrambles.
+	 * @param rng the generator to draw from
+	 * @return the rank or key
+	 */
+	public long sample(RandomGenerator rng) {
+		long k = sampleRank(rng);
+		return scramble ? LWRand64.mix(k) : k;
+	}
+	
+	/**
+	 * Fill an array with ranks, or their keys if this sampler scrambles.
+	 * @param rng the generator to draw from
+	 * @param keys the array to fill
+	 */
+	public void fill(RandomGenerator rng, long[] keys) {
+		fill(rng, keys, 0, keys.length);
+	}
+	
+	/**
+	 * Fill a range of an array with ranks, or their keys if this sampler scrambles.
+	 * @param rng the generator to draw from
+	 * @param keys the array to fill
+	 * @param off the first index to fill
+	 * @param len the number of values to produce
+	 */
+	public void fill(RandomGenerator rng, long[] keys, int off, int len) {
+		Objects.checkFromIndexSize(off, len, keys.length);
+		for (int i = off; i < off + len; i++) {
+			keys[i] = sample(rng);
+		}
+	}
+	
+	private long sampleRank(RandomGenerator rng) {
+		for (;;) {
+			// invert the integral of the hat function, which bounds the probabilities from above
+			double u = hIntegralN + rng.nextDouble() * (hIntegralX1 - hIntegralN);
+			double x = hIntegralInverse(u);
+			long k = (long) (x + 0.5);
+			if (k < 1) {
+				k = 1;
+			} else if (k > n) {
+				k = n;
+			}
+			// accept immediately when x is close enough to k, otherwise compare with the exact probability
+			if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+				return k;
+			}
+		}
+	}
+	
+	/**
+	 * The hat function h(x) = 1/x^exponent.
+	 */
+	private double h(double x) {
+		return Math.exp(-exponent * Math.log(x));
+	}
+	
+	/**
+	 * The integral of h, (x^(1-exponent) - 1)/(1 - exponent), or log(x) for exponent 1.
+	 */
+	private double hIntegral(double x) {
+		double logX = Math.log(x);
+		return expm1OverX((1 - exponent) * logX) * logX;
+	}
+	
+	/**
+	 * The inverse of {@linkplain #hIntegral(double)}.
+	 */
+	private double hIntegralInverse(double x) {
+		double t = x * (1 - exponent);
+		if (t < -1) t = -1; // rounding error may push this out of range
+		return Math.exp(log1pOverX(t) * x);
+	}
+	
+	/**
+	 * Return log(1 + x)/x, with the limit 1 at x = 0.
+	 */
+	private static double log1pOverX(double x) {
+		if (Math.abs(x) > 1e-8) return Math.log1p(x) / x;
+		return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+	}
+	
+	/**
+	 * Return (e^x - 1)/x, with the limit 1 at x = 0.
+	 */
+	private static double expm1OverX(double x) {
+		if (Math.abs(x) > 1e-8) return Math.expm1(x) / x;
+		return 1 + x * 0.5 * (1 + x * (1.0 / 3) * (1 + 0.25 * x));
+	}
+}
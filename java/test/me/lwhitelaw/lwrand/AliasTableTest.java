@@ -0,0 +1,104 @@
+package me.lwhitelaw.lwrand;
+
+/**
+ * Checks for {@linkplain AliasTable}. Run the main method; a failed check throws an {@linkplain AssertionError}.
+ */
+public class AliasTableTest {
+	public static void main(String[] args) {
+		tinyWeights();
+		hugeWeights();
+		randomWeights();
+		rejectsBadWeights();
+		System.out.println("AliasTableTest passed");
+	}
+	
+	/**
+	 * Weights whose sum is far below 1 once must not draw zero-weight categories.
+	 */
+	static void tinyWeights() {
+		double[] weights = { 1e-320, 0, 0 };
+		for (AliasTable table : new AliasTable[] { AliasTable.of(weights), AliasTable.offHeap(weights) }) {
+			checkProbabilities(table, weights);
+			LWRand64 rng = new LWRand64(1);
+			for (int i = 0; i < 100_000; i++) {
+				check(table.sample(rng) == 0, "drew a zero-weight category");
+			}
+		}
+	}
+	
+	/**
+	 * Weights whose sum overflows must be accepted.
+	 */
+	static void hugeWeights() {
+		double[] weights = { 1e308, 1e308 };
+		for (AliasTable table : new AliasTable[] { AliasTable.of(weights), AliasTable.offHeap(weights) }) {
+			checkProbabilities(table, weights);
+			LWRand64 rng = new LWRand64(2);
+			int ones = 0;
+			for (int i = 0; i < 1_000_000; i++) ones += table.sample(rng);
+			check(Math.abs(ones - 500_000) < 3_000, "unbalanced draws from equal weights: " + ones);
+		}
+	}
+	
+	static void randomWeights() {
+		LWRand64 rng = new LWRand64(3);
+		for (int n : new int[] { 1, 2, 3, 10, 1000, 100_000 }) {
+			double[] weights = new double[n];
+			for (int i = 0; i < n; i++) {
+				// mix of zeros, small and large weights to exercise every path of the build
+				double u = rng.nextDouble();
+				weights[i] = u < 0.1 ? 0 : u < 0.9 ? rng.nextDouble() : 100 * rng.nextDouble();
+			}
+			if (n == 1) weights[0] = 1;
+			checkProbabilities(AliasTable.of(weights), weights);
+			checkProbabilities(AliasTable.offHeap(weights), weights);
+		}
+	}
+	
+	static void rejectsBadWeights() {
+		double[][] bad = { {}, { 0, 0 }, { 1, -1 }, { 1, Double.NaN }, { 1, Double.POSITIVE_INFINITY } };
+		for (double[] weights : bad) {
+			try {
+				AliasTable.of(weights);
+				throw new AssertionError("accepted weights of length " + weights.length);
+			} catch (IllegalArgumentException expected) {
+			}
+			try {
+				AliasTable.offHeap(weights);
+				throw new AssertionError("accepted weights of length " + weights.length);
+			} catch (IllegalArgumentException expected) {
+			}
+		}
+	}
+	
+	/**
+	 * Compare the exact probability of each category, read from the table, with its normalised weight. Rounding error in the
+	 * build grows with the number of columns a large weight is spread over, so the tolerance is absolute, not relative.
+	 */
+	private static void checkProbabilities(AliasTable table, double[] weights) {
+		int n = weights.length;
+		check(table.size() == n, "wrong size");
+		double max = 0;
+		for (double w : weights) max = Math.max(max, w);
+		double sum = 0;
+		for (double w : weights) sum += w / max;
+		double[] p = new double[n];
+		for (int i = 0; i < n; i++) {
+			double keep = table.threshold(i) * 0x1.0p-53;
+			int alias = table.alias(i);
+			check(keep >= 0 && keep <= 1, "threshold out of range in column " + i);
+			check(alias >= 0 && alias < n, "alias out of range in column " + i);
+			p[i] += keep / n;
+			p[alias] += (1 - keep) / n;
+		}
+		for (int i = 0; i < n; i++) {
+			double expected = (weights[i] / max) / sum;
+			check(weights[i] != 0 ? Math.abs(p[i] - expected) <= 1e-13 : p[i] == 0,
+					"category " + i + " of " + n + " has probability " + p[i] + ", expected " + expected);
+		}
+	}
+	
+	private static void check(boolean condition, String message) {
+		if (!condition) throw new AssertionError(message);
+	}
+}
@@ -0,0 +1,64 @@
+package me.lwhitelaw.lwrand;
+
+/**
+ * Checks for the distribution samplers. Run the main method; a failed check throws an {@linkplain AssertionError}.
+ */
+public class DistributionsTest {
+	private static final int COUNT = 1_000_000;
+	
+	public static void main(String[] args) {
+		betaTinyShapes();
+		betaSmallShapes();
+		betaRejectsBadShapes();
+		System.out.println("DistributionsTest passed");
+	}
+	
+	/**
+	 * Tiny shapes put almost all mass at 0 and 1, with P(X > 1/2) = alpha / (alpha + beta). Sampling must not hang.
+	 */
+	static void betaTinyShapes() {
+		LWRand64 rng = new LWRand64(1);
+		checkUpperMass(rng, Distributions.beta(1e-3, 1e-3), 0.5);
+		checkUpperMass(rng, Distributions.beta(2e-3, 1e-3), 2.0 / 3);
+		checkUpperMass(rng, Distributions.beta(1e-8, 1e-8), 0.5);
+		checkUpperMass(rng, Distributions.beta(1e-300, 1e-300), 0.5);
+	}
+	
+	static void betaSmallShapes() {
+		LWRand64 rng = new LWRand64(2);
+		Distributions.Beta beta = Distributions.beta(0.5, 0.3);
+		double sum = 0;
+		for (int i = 0; i < COUNT; i++) {
+			double x = beta.sample(rng);
+			check(x >= 0 && x <= 1, "beta value out of range: " + x);
+			sum += x;
+		}
+		double mean = sum / COUNT;
+		check(Math.abs(mean - 0.625) < 0.002, "beta(0.5, 0.3) mean " + mean);
+	}
+	
+	static void betaRejectsBadShapes() {
+		for (double shape : new double[] { 0, 1e-310, -1, Double.NaN, Double.POSITIVE_INFINITY }) {
+			try {
+				Distributions.beta(shape, 1);
+				throw new AssertionError("accepted shape " + shape);
+			} catch (IllegalArgumentException expected) {
+			}
+		}
+	}
+	
+	private static void checkUpperMass(LWRand64 rng, Distributions.Beta beta, double expected) {
+		int upper = 0;
+		for (int i = 0; i < COUNT; i++) {
+			double x = beta.sample(rng);
+			check(x >= 0 && x <= 1, "beta value out of range: " + x);
+			if (x > 0.5) upper++;
+		}
+		double p = (double) upper / COUNT;
+		check(Math.abs(p - expected) < 0.003, "beta(" + beta.alpha() + ", " + beta.beta() + ") P(X > 1/2) = " + p);
+	}
+	
+	private static void check(boolean condition, String message) {
+		if (!condition) throw new AssertionError(message);
+	}
+}